@@ -0,0 +1,151 @@
+package org.thirteen.authorization.common.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Aaron.Sun
+ * @description 本地有界缓存（条目可单独设置过期时间，读取无锁，超出容量时批量淘汰）
+ * @date Created in 10:12 2026/10/18
+ * @modified By
+ */
+public class LocalCache<K, V> {
+
+    /** 超出容量时，淘汰至最大容量的比例 */
+    private static final double EVICT_FACTOR = 0.9;
+
+    /** 最大容量 */
+    private final int maximumSize;
+    /** 默认存活时间（毫秒） */
+    private final long expireMillis;
+    /** 缓存数据 */
+    private final Map<K, Entry<V>> store;
+    /** 是否正在淘汰，保证同一时刻只有一个线程执行淘汰 */
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    /**
+     * 构造方法
+     *
+     * @param maximumSize  最大容量
+     * @param expireMillis 默认存活时间（毫秒）
+     */
+    public LocalCache(int maximumSize, long expireMillis) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be greater than 0");
+        }
+        this.maximumSize = maximumSize;
+        this.expireMillis = expireMillis;
+        this.store = new ConcurrentHashMap<>(Math.min(maximumSize, 1024));
+    }
+
+    /**
+     * 获取缓存，不存在或已过期时返回null
+     *
+     * @param key 键
+     * @return 值
+     */
+    public V get(K key) {
+        Entry<V> entry = this.store.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            // 只删除当前读到的条目，避免误删并发写入的新值
+            this.store.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * 设置缓存（使用默认存活时间）
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public void put(K key, V value) {
+        this.put(key, value, System.currentTimeMillis() + this.expireMillis);
+    }
+
+    /**
+     * 设置缓存
+     *
+     * @param key      键
+     * @param value    值
+     * @param expireAt 过期时间点（毫秒时间戳，不会超过默认存活时间）
+     */
+    public void put(K key, V value, long expireAt) {
+        this.store.put(key, new Entry<>(value, Math.min(expireAt, System.currentTimeMillis() + this.expireMillis)));
+        if (this.store.size() > this.maximumSize) {
+            this.evict();
+        }
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key 键
+     */
+    public void remove(K key) {
+        this.store.remove(key);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        this.store.clear();
+    }
+
+    /**
+     * 当前缓存条目数（包含尚未清理的过期条目）
+     *
+     * @return 条目数
+     */
+    public int size() {
+        return this.store.size();
+    }
+
+    /**
+     * 淘汰缓存：先清理过期条目，仍超出容量时再淘汰部分条目，
+     * 一次淘汰到最大容量的90%，避免容量临界时每次写入都触发淘汰
+     */
+    private void evict() {
+        if (!this.evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            this.store.values().removeIf(entry -> entry.isExpired(now));
+            int target = (int) (this.maximumSize * EVICT_FACTOR);
+            Iterator<K> iterator = this.store.keySet().iterator();
+            while (this.store.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            this.evicting.set(false);
+        }
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param <V> 值类型
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= this.expireAt;
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package org.thirteen.authorization.common.utils;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Set;
+
 /**
  * @author Aaron.Sun
  * @description JSON转换工具类
@@ -32,6 +45,27 @@ public class JsonUtil {
         MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
     }
 
+    /**
+     * 截断标记，限制长度的序列化超出长度时追加在末尾
+     */
+    public static final String TRUNCATED_MARKER = "...[truncated]";
+    /**
+     * 脱敏后的值
+     */
+    private static final String REDACTED = "******";
+    /**
+     * 敏感字段，限制长度的序列化、脱敏序列化及导出时不输出原值
+     */
+    private static final Set<String> REDACTED_FIELDS = Set.of("password", "salt");
+    /**
+     * 脱敏的转换对象，与MAPPER配置一致，并对敏感字段脱敏
+     */
+    private static final ObjectMapper REDACTING_MAPPER = createRedactingMapper();
+    /**
+     * 每个线程复用的限制长度写入器
+     */
+    private static final ThreadLocal<CappedWriter> CAPPED_WRITER = ThreadLocal.withInitial(CappedWriter::new);
+
 
     /**
      * 序列化，将对象转化为json字符串
@@ -53,6 +87,72 @@ public class JsonUtil {
     }
 
 
+    /**
+     * 脱敏序列化，用于导出等对外输出的场景，password、salt字段的值脱敏
+     *
+     * @param data 要转化的对象
+     * @return json字符串
+     */
+    public static String toRedactedJsonString(Object data) {
+        if (data == null) {
+            return null;
+        }
+        String json = null;
+        try {
+            json = REDACTING_MAPPER.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            logger.error("[{}] toRedactedJsonString error：{{}}", data.getClass().getSimpleName(), e);
+        }
+        return json;
+    }
+
+    /**
+     * 判断字段是否为敏感字段
+     *
+     * @param field 字段名
+     * @return 是否为敏感字段
+     */
+    public static boolean isRedactedField(String field) {
+        return REDACTED_FIELDS.contains(field);
+    }
+
+    /**
+     * 限制长度的序列化，用于日志记录等只需保留前一部分内容的场景
+     * 通过Jackson的生成器直接写入固定大小的缓冲区，超出长度时立即停止序列化并追加截断标记，
+     * 不会生成完整的json字符串；password、salt字段的值脱敏
+     *
+     * @param data      要转化的对象
+     * @param maxLength 最大长度（包含截断标记）
+     * @return json字符串，长度不超过maxLength
+     */
+    public static String toJsonString(Object data, int maxLength) {
+        if (maxLength <= TRUNCATED_MARKER.length()) {
+            throw new IllegalArgumentException("最大长度必须大于截断标记的长度");
+        }
+        if (data == null) {
+            return null;
+        }
+        CappedWriter writer = CAPPED_WRITER.get();
+        writer.reset(maxLength);
+        try {
+            REDACTING_MAPPER.writeValue(writer, data);
+        } catch (IOException e) {
+            if (!writer.truncated) {
+                logger.error("[{}] toJsonString error：{{}}", data.getClass().getSimpleName(), e);
+                return null;
+            }
+        }
+        if (!writer.truncated) {
+            return writer.toString(writer.length);
+        }
+        int length = maxLength - TRUNCATED_MARKER.length();
+        // 避免截断在代理对（如emoji）中间
+        if (Character.isHighSurrogate(writer.buffer[length - 1])) {
+            length--;
+        }
+        return writer.toString(length) + TRUNCATED_MARKER;
+    }
+
     /**
      * 反序列化，将json字符串转化为对象
      *
@@ -71,4 +171,115 @@ public class JsonUtil {
         return t;
     }
 
+    private static ObjectMapper createRedactingMapper() {
+        JsonSerializer<Object> redactedSerializer = new JsonSerializer<>() {
+            @Override
+            public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeString(REDACTED);
+            }
+        };
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                for (BeanPropertyWriter property : beanProperties) {
+                    if (REDACTED_FIELDS.contains(property.getName())) {
+                        property.assignSerializer(redactedSerializer);
+                    }
+                }
+                return beanProperties;
+            }
+        });
+        ObjectMapper mapper = MAPPER.copy();
+        mapper.registerModule(module);
+        return mapper;
+    }
+
+    /**
+     * 限制长度的写入器，超出长度时抛出异常中止序列化，缓冲区在线程内复用
+     */
+    private static class CappedWriter extends Writer {
+
+        private char[] buffer = new char[0];
+        private int limit;
+        private int length;
+        private boolean truncated;
+
+        private void reset(int limit) {
+            if (this.buffer.length < limit) {
+                this.buffer = new char[limit];
+            }
+            this.limit = limit;
+            this.length = 0;
+            this.truncated = false;
+        }
+
+        private String toString(int length) {
+            return new String(this.buffer, 0, length);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int count = this.reserve(len);
+            System.arraycopy(cbuf, off, this.buffer, this.length - count, count);
+            this.checkCapped(count, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            int count = this.reserve(len);
+            str.getChars(off, off + count, this.buffer, this.length - count);
+            this.checkCapped(count, len);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            int count = this.reserve(1);
+            if (count > 0) {
+                this.buffer[this.length - 1] = (char) c;
+            }
+            this.checkCapped(count, 1);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        /**
+         * 占用缓冲区，返回实际可写入的长度
+         */
+        private int reserve(int len) {
+            int count = Math.min(len, this.limit - this.length);
+            this.length += count;
+            return count;
+        }
+
+        private void checkCapped(int count, int len) throws IOException {
+            if (count < len) {
+                this.truncated = true;
+                throw new CappedException();
+            }
+        }
+    }
+
+    /**
+     * 超出长度时抛出的异常（不记录堆栈）
+     */
+    private static class CappedException extends IOException {
+
+        private CappedException() {
+            super("json length exceeds limit");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
 }
@@ -4,7 +4,11 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.jsonwebtoken.impl.DefaultJws;
+import io.jsonwebtoken.impl.DefaultJwsHeader;
 import org.apache.commons.codec.binary.Base64;
+import org.thirteen.authorization.common.cache.LocalCache;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -31,6 +35,20 @@ public class JwtUtil {
      * 默认过期时间30分钟
      */
     private static final long EXPIRE_TIME = 30 * 60 * 1000L;
+    /**
+     * 已验证token缓存的最大容量
+     */
+    private static final int VERIFIED_CACHE_SIZE = 10000;
+    /**
+     * 签名密钥（只在类加载时由原密钥计算一次）
+     */
+    private static final SecretKey SIGNING_KEY = generalKey();
+    /**
+     * 已验证的token及解析后的token对象，条目的过期时间不超过token的过期时间
+     * 缓存的token对象不返回给调用方，每次验证时返回头部及注册信息的副本
+     */
+    private static final LocalCache<String, Jws<Claims>> VERIFIED_CACHE =
+        new LocalCache<>(VERIFIED_CACHE_SIZE, EXPIRE_TIME);
     /**
      * local线程，用来存储获取当前登录用户
      */
@@ -68,14 +86,15 @@ public class JwtUtil {
             // 设置面向用户
             .setSubject(subject)
             // 设置加密算法和密钥
-            .signWith(SignatureAlgorithm.HS256, generalKey())
+            .signWith(SignatureAlgorithm.HS256, SIGNING_KEY)
             // 设置过期时间
             .setExpiration(exp)
             .compact();
     }
 
     /**
-     * 验证JWT token，并返回解析后的token对象
+     * 验证JWT token，并返回解析后的token对象（副本，调用方可修改）
+     * 已验证且未过期的token直接由缓存获取，跳过签名验证
      * 验证失败时会抛出以下异常
      * ExpiredJwtException 过期异常
      *
@@ -83,7 +102,15 @@ public class JwtUtil {
      * @return 解析后的token对象
      */
     public static Jws<Claims> verify(String token) {
-        return Jwts.parser().setSigningKey(generalKey()).parseClaimsJws(token);
+        Jws<Claims> jws = VERIFIED_CACHE.get(token);
+        if (jws == null || isExpired(jws.getBody(), System.currentTimeMillis())) {
+            // 缓存中不存在或已过期，重新验证（过期时由此抛出ExpiredJwtException）
+            jws = Jwts.parser().setSigningKey(SIGNING_KEY).parseClaimsJws(token);
+            Date expiration = jws.getBody().getExpiration();
+            VERIFIED_CACHE.put(token, jws, expiration == null ? Long.MAX_VALUE : expiration.getTime());
+        }
+        return new DefaultJws<>(new DefaultJwsHeader(jws.getHeader()), new DefaultClaims(jws.getBody()),
+            jws.getSignature());
     }
 
     /**
@@ -145,6 +172,18 @@ public class JwtUtil {
         return token;
     }
 
+    /**
+     * 判断token是否已过期
+     *
+     * @param claims 注册信息
+     * @param now    当前时间（毫秒时间戳）
+     * @return 是否已过期
+     */
+    private static boolean isExpired(Claims claims, long now) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= now;
+    }
+
     /**
      * 获取密钥
      *
@@ -19,9 +19,33 @@ import java.io.Serializable;
 public class PageParam implements Serializable {
 
     private static final long serialVersionUID = 1L;
+    /**
+     * 精确统计总记录数
+     */
+    public static final String COUNT_EXACT = "exact";
+    /**
+     * 不统计总记录数，仅判断是否有下一页
+     */
+    public static final String COUNT_NONE = "none";
+    /**
+     * 估算总记录数（无条件时取表统计信息，有条件时取有效期内缓存的统计结果）
+     */
+    public static final String COUNT_ESTIMATED = "estimated";
+
     @ApiParam(value = "当前页码，第一页页码为0")
     private Integer pageNum;
     @ApiParam(value = "每页大小")
     private Integer pageSize;
+    @ApiParam(value = "游标，不为null时使用游标分页（忽略页码），第一页为空字符串，之后为上一页返回的nextCursor")
+    private String cursor;
+    @ApiParam(value = "总记录数统计方式 exact（精确）/none（不统计）/estimated（估算），默认页码分页为exact，游标分页为none")
+    private String countMode;
+
+    public static PageParam seek(String cursor, Integer pageSize) {
+        PageParam page = new PageParam();
+        page.setCursor(cursor == null ? "" : cursor);
+        page.setPageSize(pageSize);
+        return page;
+    }
 
 }
@@ -0,0 +1,93 @@
+package org.thirteen.authorization.redis.authority;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author Aaron.Sun
+ * @description 用户权限快照，保存用户拥有的启用角色编码及权限路径，用于O(1)的权限校验
+ * @date Created in 10:31 2026/10/18
+ * @modified By
+ */
+public class AuthoritySnapshot implements Serializable {
+
+    /**
+     * 用户账号
+     */
+    private String account;
+    /**
+     * 快照版本，全局失效时版本递增
+     */
+    private long version;
+    /**
+     * 用户拥有的启用角色编码
+     */
+    private Set<String> roleCodes = Collections.emptySet();
+    /**
+     * 用户拥有的启用权限路径
+     */
+    private Set<String> urls = Collections.emptySet();
+
+    public AuthoritySnapshot() {
+    }
+
+    public AuthoritySnapshot(String account, Set<String> roleCodes, Set<String> urls) {
+        this.account = account;
+        this.setRoleCodes(roleCodes);
+        this.setUrls(urls);
+    }
+
+    /**
+     * 是否拥有请求路径的权限
+     *
+     * @param url 请求路径
+     * @return 是否拥有权限
+     */
+    public boolean hasPermission(String url) {
+        return url != null && this.urls.contains(url);
+    }
+
+    /**
+     * 是否拥有角色
+     *
+     * @param roleCode 角色编码
+     * @return 是否拥有角色
+     */
+    public boolean hasRole(String roleCode) {
+        return roleCode != null && this.roleCodes.contains(roleCode);
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Set<String> getRoleCodes() {
+        return roleCodes;
+    }
+
+    public void setRoleCodes(Set<String> roleCodes) {
+        this.roleCodes = roleCodes == null ? Collections.emptySet() : new HashSet<>(roleCodes);
+    }
+
+    public Set<String> getUrls() {
+        return urls;
+    }
+
+    public void setUrls(Set<String> urls) {
+        this.urls = urls == null ? Collections.emptySet() : new HashSet<>(urls);
+    }
+}
@@ -0,0 +1,30 @@
+package org.thirteen.authorization.redis.event;
+
+/**
+ * @author Aaron.Sun
+ * @description 用户权限快照失效事件，本节点以应用事件发布，其他节点通过redis订阅接收后清除本地缓存
+ * @date Created in 18:20 2026/10/18
+ * @modified By
+ */
+public class AuthorityEvictedEvent extends BaseChangedEvent {
+
+    /**
+     * 用户账号，为null时失效所有用户
+     */
+    private String account;
+
+    public AuthorityEvictedEvent() {
+    }
+
+    public AuthorityEvictedEvent(String account) {
+        this.account = account;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+}
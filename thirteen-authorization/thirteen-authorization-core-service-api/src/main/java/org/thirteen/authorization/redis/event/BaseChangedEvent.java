@@ -0,0 +1,46 @@
+package org.thirteen.authorization.redis.event;
+
+import java.io.Serializable;
+
+/**
+ * @author Aaron.Sun
+ * @description 变更事件基类，本节点以应用事件发布，其他节点通过redis订阅接收
+ * 发布节点ID及变更时间在发布时设置
+ * @date Created in 16:30 2026/10/18
+ * @modified By
+ */
+public abstract class BaseChangedEvent implements Serializable {
+
+    /**
+     * 发布事件的节点ID
+     */
+    private String nodeId;
+    /**
+     * 变更时间（毫秒时间戳）
+     */
+    private long changeTime;
+
+    public BaseChangedEvent() {
+    }
+
+    public BaseChangedEvent(String nodeId, long changeTime) {
+        this.nodeId = nodeId;
+        this.changeTime = changeTime;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public long getChangeTime() {
+        return changeTime;
+    }
+
+    public void setChangeTime(long changeTime) {
+        this.changeTime = changeTime;
+    }
+}
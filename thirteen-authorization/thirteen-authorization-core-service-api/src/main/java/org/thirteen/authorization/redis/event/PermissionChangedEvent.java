@@ -0,0 +1,17 @@
+package org.thirteen.authorization.redis.event;
+
+/**
+ * @author Aaron.Sun
+ * @description 权限变更事件，本节点以应用事件发布，其他节点通过redis订阅接收
+ * @date Created in 15:10 2026/10/18
+ * @modified By
+ */
+public class PermissionChangedEvent extends BaseChangedEvent {
+
+    public PermissionChangedEvent() {
+    }
+
+    public PermissionChangedEvent(String nodeId, long changeTime) {
+        super(nodeId, changeTime);
+    }
+}
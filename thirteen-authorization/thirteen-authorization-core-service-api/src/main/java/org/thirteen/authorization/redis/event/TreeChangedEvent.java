@@ -0,0 +1,35 @@
+package org.thirteen.authorization.redis.event;
+
+/**
+ * @author Aaron.Sun
+ * @description 树结构数据变更事件，本节点以应用事件发布，其他节点通过redis订阅接收
+ * @date Created in 11:50 2026/10/18
+ * @modified By
+ */
+public class TreeChangedEvent extends BaseChangedEvent {
+
+    /**
+     * 树结构名称（实体类名）
+     */
+    private String treeName;
+
+    public TreeChangedEvent() {
+    }
+
+    public TreeChangedEvent(String treeName) {
+        this.treeName = treeName;
+    }
+
+    public TreeChangedEvent(String nodeId, String treeName, long changeTime) {
+        super(nodeId, changeTime);
+        this.treeName = treeName;
+    }
+
+    public String getTreeName() {
+        return treeName;
+    }
+
+    public void setTreeName(String treeName) {
+        this.treeName = treeName;
+    }
+}
@@ -0,0 +1,36 @@
+package org.thirteen.authorization.redis.service;
+
+import org.thirteen.authorization.redis.authority.AuthoritySnapshot;
+
+import java.util.function.Function;
+
+/**
+ * @author Aaron.Sun
+ * @description 用户权限快照服务接口（本地缓存 + redis二级缓存）
+ * @date Created in 10:36 2026/10/18
+ * @modified By
+ */
+public interface AuthoritySnapshotService {
+
+    /**
+     * 获取用户权限快照，缓存中不存在时由loader构建并放入缓存
+     *
+     * @param account 用户账号
+     * @param loader  快照构建方法
+     * @return 用户权限快照
+     */
+    AuthoritySnapshot get(String account, Function<String, AuthoritySnapshot> loader);
+
+    /**
+     * 失效单个用户的权限快照（存在事务时，在事务提交后执行）
+     *
+     * @param account 用户账号
+     */
+    void evict(String account);
+
+    /**
+     * 失效所有用户的权限快照（存在事务时，在事务提交后执行）
+     */
+    void evictAll();
+
+}
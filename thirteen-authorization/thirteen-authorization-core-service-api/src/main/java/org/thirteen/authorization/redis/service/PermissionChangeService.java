@@ -0,0 +1,16 @@
+package org.thirteen.authorization.redis.service;
+
+/**
+ * @author Aaron.Sun
+ * @description 权限变更通知服务接口
+ * @date Created in 15:14 2026/10/18
+ * @modified By
+ */
+public interface PermissionChangeService {
+
+    /**
+     * 发布权限变更事件（存在事务时，在事务提交后发布），本节点及其他节点均会收到
+     */
+    void publish();
+
+}
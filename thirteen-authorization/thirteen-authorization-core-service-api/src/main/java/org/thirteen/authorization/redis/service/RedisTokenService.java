@@ -1,8 +1,11 @@
 package org.thirteen.authorization.redis.service;
 
 import org.thirteen.authorization.redis.token.RedisToken;
+import org.thirteen.authorization.redis.token.RedisTokenPage;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -36,6 +39,54 @@ public interface RedisTokenService {
      */
     void delete(String token);
 
+    /**
+     * 批量获取redisToken（一次往返）
+     *
+     * @param tokens token集合
+     * @return token及redisToken，不存在的token不包含在内
+     */
+    Map<String, RedisToken> getAll(Collection<String> tokens);
+
+    /**
+     * 批量设置redisToken（一次往返）
+     *
+     * @param redisTokens token及redisToken
+     */
+    void putAll(Map<String, RedisToken> redisTokens);
+
+    /**
+     * 批量删除redisToken
+     *
+     * @param tokens token集合
+     */
+    void deleteAll(Collection<String> tokens);
+
+    /**
+     * 删除用户账号下的所有redisToken（强制下线）
+     *
+     * @param account 用户账号
+     * @return 删除的数量
+     */
+    int revokeAll(String account);
+
+    /**
+     * 分批扫描所有redisToken，可由上一次返回的游标继续扫描
+     *
+     * @param cursor 游标，首次扫描时为空或"0"
+     * @param count  每批扫描的数量（参考值，实际返回的数量可能不同）
+     * @return 本次扫描到的redisToken及下一次扫描的游标
+     */
+    RedisTokenPage scan(String cursor, int count);
+
+    /**
+     * 记录token的最后访问时间（延迟批量写入redis）
+     *
+     * @param token      token
+     * @param redisToken redisToken
+     * @param accessTime 访问时间
+     */
+    void touch(String token, RedisToken redisToken, LocalDateTime accessTime);
+
     /**
      * 当前所有redisToken的token，总数即为当前总在线人数（可能部分用户未正常退出，所以并不准确）
      *
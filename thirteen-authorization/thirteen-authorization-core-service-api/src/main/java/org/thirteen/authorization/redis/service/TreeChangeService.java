@@ -0,0 +1,18 @@
+package org.thirteen.authorization.redis.service;
+
+/**
+ * @author Aaron.Sun
+ * @description 树结构数据变更通知服务接口
+ * @date Created in 11:52 2026/10/18
+ * @modified By
+ */
+public interface TreeChangeService {
+
+    /**
+     * 发布树结构数据变更事件（存在事务时，在事务提交后发布），本节点及其他节点均会收到
+     *
+     * @param treeName 树结构名称（实体类名）
+     */
+    void publish(String treeName);
+
+}
@@ -0,0 +1,61 @@
+package org.thirteen.authorization.redis.token;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * @author Aaron.Sun
+ * @description redisToken分批扫描结果，游标为"0"时表示扫描结束
+ * @date Created in 18:10 2026/10/18
+ * @modified By
+ */
+public class RedisTokenPage implements Serializable {
+
+    /**
+     * 扫描结束的游标
+     */
+    public static final String FINISHED_CURSOR = "0";
+
+    /**
+     * 下一次扫描的游标
+     */
+    private String cursor;
+    /**
+     * 本次扫描到的token及redisToken（扫描期间已过期的token不包含在内）
+     */
+    private Map<String, RedisToken> tokens;
+
+    public RedisTokenPage() {
+    }
+
+    public RedisTokenPage(String cursor, Map<String, RedisToken> tokens) {
+        this.cursor = cursor;
+        this.tokens = tokens == null ? Collections.emptyMap() : tokens;
+    }
+
+    /**
+     * 是否扫描结束
+     *
+     * @return 是否扫描结束
+     */
+    public boolean isFinished() {
+        return FINISHED_CURSOR.equals(this.cursor);
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Map<String, RedisToken> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(Map<String, RedisToken> tokens) {
+        this.tokens = tokens;
+    }
+}
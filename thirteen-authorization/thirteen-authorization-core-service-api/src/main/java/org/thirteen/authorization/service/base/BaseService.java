@@ -5,6 +5,7 @@ import org.thirteen.authorization.model.vo.base.BaseVO;
 import org.thirteen.authorization.web.PagerResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * @author Aaron.Sun
@@ -95,4 +96,13 @@ public interface BaseService<VO extends BaseVO> {
      */
     PagerResult<VO> findAllByParam(BaseParam param);
 
+    /**
+     * 由条件基类流式查询所有数据（忽略分页参数），逐条转换后交给处理方法，用于导出大量数据
+     * 最多读取 stream-max-rows 条，超过 stream-timeout 毫秒时抛出BusinessException中止查询
+     *
+     * @param param    条件基类
+     * @param consumer VO对象处理方法
+     */
+    void streamAllByParam(BaseParam param, Consumer<VO> consumer);
+
 }
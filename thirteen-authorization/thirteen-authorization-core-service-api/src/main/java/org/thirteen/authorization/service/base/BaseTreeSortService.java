@@ -6,6 +6,7 @@ import org.thirteen.authorization.web.PagerResult;
 /**
  * @author Aaron.Sun
  * @description 通用Service层接口（实体类为上下级结构）
+ * 查询结果可能为树结构快照中的共享对象，调用方不可修改
  * @date Created in 18:15 2020/1/15
  * @modified by
  */
@@ -31,8 +32,17 @@ public interface BaseTreeSortService<VO extends BaseTreeSortVO> extends BaseReco
      * 通过编码获取所有下级节点信息
      *
      * @param code 编码
-     * @return 所有下级节点信息（不包括传入节点信息）,非树形结构
+     * @return 所有下级节点信息（不包括传入节点信息）,非树形结构，按先序遍历排序（每个节点之后紧跟其所有下级）
      */
     PagerResult<VO> findAllChildren(String code);
 
+    /**
+     * 判断节点是否为指定节点的下级
+     *
+     * @param code       编码
+     * @param parentCode 上级编码
+     * @return 是否为下级（不包括自身）
+     */
+    boolean isDescendant(String code, String parentCode);
+
 }
@@ -21,10 +21,16 @@ import java.util.List;
 public class PagerResult<T> implements Serializable {
 
     private static final long serialVersionUID = 1L;
-    @ApiModelProperty(example = "10", notes = "总记录数")
+    @ApiModelProperty(example = "10", notes = "总记录数，未统计时为-1")
     private long total;
     @ApiModelProperty(notes = "结果集")
     private List<T> list;
+    @ApiModelProperty(notes = "游标分页时下一页的游标，没有下一页时为null")
+    private String nextCursor;
+    @ApiModelProperty(notes = "分页查询时是否有下一页")
+    private Boolean hasNext;
+    @ApiModelProperty(example = "exact", notes = "分页查询时总记录数的统计方式 exact（精确）/none（未统计）/estimated（估算）")
+    private String countMode;
 
     public static <T> PagerResult<T> empty() {
         return new PagerResult<T>().total(0).list(Collections.emptyList());
@@ -47,4 +53,19 @@ public class PagerResult<T> implements Serializable {
         this.list = list;
         return this;
     }
+
+    public PagerResult<T> nextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+        return this;
+    }
+
+    public PagerResult<T> hasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+        return this;
+    }
+
+    public PagerResult<T> countMode(String countMode) {
+        this.countMode = countMode;
+        return this;
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
+import org.thirteen.authorization.dozer.CompiledMapper;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -41,6 +42,16 @@ public class DozerConfig {
         return dozerBean;
     }
 
+    /**
+     * 预编译的对象转换器，与dozer使用相同的映射文件
+     *
+     * @return 预编译的对象转换器
+     */
+    @Bean
+    public CompiledMapper compiledMapper() {
+        return CompiledMapper.of(files);
+    }
+
     /**
      * 数组合并
      *
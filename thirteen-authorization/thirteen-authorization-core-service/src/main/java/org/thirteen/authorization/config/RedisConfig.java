@@ -1,10 +1,23 @@
 package org.thirteen.authorization.config;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.thirteen.authorization.redis.event.AuthorityEvictedEvent;
+import org.thirteen.authorization.redis.event.PermissionChangedEvent;
+import org.thirteen.authorization.redis.event.TreeChangedEvent;
+import org.thirteen.authorization.redis.keys.RedisKey;
+import org.thirteen.authorization.redis.serializer.RedisTokenSerializer;
+import org.thirteen.authorization.redis.support.ChangeBroadcaster;
+import org.thirteen.authorization.redis.token.RedisToken;
+
+import java.util.List;
 
 /**
  * @author Aaron.Sun
@@ -32,6 +45,84 @@ public class RedisConfig {
         return redisTemplate;
     }
 
+    /**
+     * redisToken 模板，key为字符串，value及hash value为redisToken对象
+     *
+     * @return redisTokenTemplate
+     */
+    @Bean
+    public RedisTemplate<String, RedisToken> redisTokenTemplate(JedisConnectionFactory factory) {
+        RedisTemplate<String, RedisToken> redisTokenTemplate = new RedisTemplate<>();
+        redisTokenTemplate.setConnectionFactory(factory);
+        redisTokenTemplate.setKeySerializer(stringRedisSerializer());
+        redisTokenTemplate.setHashKeySerializer(stringRedisSerializer());
+        // redisToken使用二进制序列化，兼容读取JDK序列化的旧数据
+        RedisTokenSerializer redisTokenSerializer = new RedisTokenSerializer(getClass().getClassLoader());
+        redisTokenTemplate.setValueSerializer(redisTokenSerializer);
+        redisTokenTemplate.setHashValueSerializer(redisTokenSerializer);
+        return redisTokenTemplate;
+    }
+
+    /**
+     * 权限变更事件广播
+     *
+     * @param stringRedisTemplate       字符串redis模板
+     * @param applicationEventPublisher 应用事件发布
+     * @return 权限变更事件广播
+     */
+    @Bean
+    public ChangeBroadcaster<PermissionChangedEvent> permissionChangeBroadcaster(
+        StringRedisTemplate stringRedisTemplate, ApplicationEventPublisher applicationEventPublisher) {
+        return new ChangeBroadcaster<>(RedisKey.PERMISSION_CHANGED_CHANNEL, PermissionChangedEvent.class,
+            stringRedisTemplate, applicationEventPublisher);
+    }
+
+    /**
+     * 树结构数据变更事件广播
+     *
+     * @param stringRedisTemplate       字符串redis模板
+     * @param applicationEventPublisher 应用事件发布
+     * @return 树结构数据变更事件广播
+     */
+    @Bean
+    public ChangeBroadcaster<TreeChangedEvent> treeChangeBroadcaster(
+        StringRedisTemplate stringRedisTemplate, ApplicationEventPublisher applicationEventPublisher) {
+        return new ChangeBroadcaster<>(RedisKey.TREE_CHANGED_CHANNEL, TreeChangedEvent.class,
+            stringRedisTemplate, applicationEventPublisher);
+    }
+
+    /**
+     * 用户权限快照失效事件广播
+     *
+     * @param stringRedisTemplate       字符串redis模板
+     * @param applicationEventPublisher 应用事件发布
+     * @return 用户权限快照失效事件广播
+     */
+    @Bean
+    public ChangeBroadcaster<AuthorityEvictedEvent> authorityEvictBroadcaster(
+        StringRedisTemplate stringRedisTemplate, ApplicationEventPublisher applicationEventPublisher) {
+        return new ChangeBroadcaster<>(RedisKey.AUTHORITY_EVICTED_CHANNEL, AuthorityEvictedEvent.class,
+            stringRedisTemplate, applicationEventPublisher);
+    }
+
+    /**
+     * redis 消息订阅容器，每个变更事件广播订阅各自的频道
+     *
+     * @param factory            redis连接工厂
+     * @param changeBroadcasters 变更事件广播
+     * @return redis消息订阅容器
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(JedisConnectionFactory factory,
+        List<ChangeBroadcaster<?>> changeBroadcasters) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        for (ChangeBroadcaster<?> changeBroadcaster : changeBroadcasters) {
+            container.addMessageListener(changeBroadcaster, new ChannelTopic(changeBroadcaster.getChannel()));
+        }
+        return container;
+    }
+
     /**
      * 字符串序列化
      *
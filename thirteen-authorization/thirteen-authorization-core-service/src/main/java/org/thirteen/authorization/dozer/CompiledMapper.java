@@ -0,0 +1,508 @@
+package org.thirteen.authorization.dozer;
+
+import org.dozer.MappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Aaron.Sun
+ * @description 预编译的对象转换器
+ * 每对源类型与目标类型在首次转换时生成一次基于MethodHandle的转换计划，之后直接调用getter/setter，不再反射；
+ * 转换规则与dozer一致：同名属性隐式映射、映射文件中的字段映射（含深度映射）双向生效、null值同样拷贝；
+ * 存在无法等价处理的属性（类型不一致、可变对象、集合、自定义转换器）或映射配置时，该类型对返回null，由dozer转换
+ * @date Created in 20:05 2026/10/18
+ * @modified By
+ */
+public class CompiledMapper {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledMapper.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final String PATH_SEPARATOR = ".";
+
+    /**
+     * 可直接拷贝引用的不可变类型
+     */
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+        String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+        Float.class, Double.class, BigDecimal.class, BigInteger.class,
+        LocalDate.class, LocalDateTime.class, LocalTime.class, Instant.class));
+    /**
+     * 转换结果与源值相等的自定义转换器
+     */
+    private static final Set<String> VALUE_PRESERVING_CONVERTERS = Collections.singleton(
+        LocalDateTimeDozerConverter.class.getName());
+    /**
+     * 无法转换的类型对
+     */
+    private static final Plan UNSUPPORTED = new Plan(null, new Step[0]);
+
+    /** 映射文件中声明的字段映射 */
+    private final List<ClassMapping> classMappings;
+    /** 映射文件中存在无法等价处理的配置的类型对 */
+    private final List<Class<?>[]> unsupportedMappings;
+    /** 存在自定义转换器（非等值转换）的类型 */
+    private final Set<Class<?>> convertedTypes;
+    /** 转换计划缓存 */
+    private final Map<Class<?>, Map<Class<?>, Plan>> plans = new ConcurrentHashMap<>();
+    /** 属性描述缓存 */
+    private final Map<Class<?>, Map<String, PropertyDescriptor>> properties = new ConcurrentHashMap<>();
+
+    private CompiledMapper(List<ClassMapping> classMappings, List<Class<?>[]> unsupportedMappings,
+                           Set<Class<?>> convertedTypes) {
+        this.classMappings = classMappings;
+        this.unsupportedMappings = unsupportedMappings;
+        this.convertedTypes = convertedTypes;
+    }
+
+    /**
+     * 由dozer映射文件创建转换器
+     *
+     * @param files 映射文件
+     * @return 转换器
+     */
+    public static CompiledMapper of(Resource[] files) {
+        List<ClassMapping> classMappings = new ArrayList<>();
+        List<Class<?>[]> unsupportedMappings = new ArrayList<>();
+        Set<Class<?>> convertedTypes = new HashSet<>();
+        if (files != null) {
+            for (Resource file : files) {
+                try (InputStream in = file.getInputStream()) {
+                    parse(in, classMappings, unsupportedMappings, convertedTypes);
+                } catch (Exception e) {
+                    throw new MappingException("解析dozer映射文件失败：" + file.getDescription(), e);
+                }
+            }
+        }
+        return new CompiledMapper(classMappings, unsupportedMappings, convertedTypes);
+    }
+
+    /**
+     * 获取转换计划
+     *
+     * @param sourceClass      源对象类型
+     * @param destinationClass 目标对象类型
+     * @return 转换计划，无法等价转换时返回null
+     */
+    public Plan getPlan(Class<?> sourceClass, Class<?> destinationClass) {
+        Plan plan = this.plans.computeIfAbsent(sourceClass, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(destinationClass, key -> this.compile(sourceClass, destinationClass));
+        return plan == UNSUPPORTED ? null : plan;
+    }
+
+    /**
+     * 生成转换计划
+     */
+    private Plan compile(Class<?> sourceClass, Class<?> destinationClass) {
+        try {
+            for (Class<?>[] pair : this.unsupportedMappings) {
+                if (matches(pair[0], pair[1], sourceClass, destinationClass)) {
+                    return UNSUPPORTED;
+                }
+            }
+            MethodHandle constructor = null;
+            if (!destinationClass.isInterface() && !Modifier.isAbstract(destinationClass.getModifiers())) {
+                constructor = LOOKUP.findConstructor(destinationClass, MethodType.methodType(void.class))
+                    .asType(CONSTRUCTOR_TYPE);
+            }
+            // 显式字段映射，key为目标属性路径，value为源属性路径
+            Map<String, String> explicit = new LinkedHashMap<>();
+            for (ClassMapping mapping : this.classMappings) {
+                if (matches(mapping.classA, mapping.classB, sourceClass, destinationClass)) {
+                    mapping.fields.forEach((a, b) -> explicit.put(b, a));
+                } else if (matches(mapping.classB, mapping.classA, sourceClass, destinationClass)) {
+                    mapping.fields.forEach((a, b) -> explicit.put(a, b));
+                }
+            }
+            Set<String> explicitRoots = new HashSet<>();
+            explicit.keySet().forEach(path -> explicitRoots.add(root(path)));
+            List<Step> steps = new ArrayList<>();
+            // 同名属性隐式映射
+            Map<String, PropertyDescriptor> sourceProperties = this.properties(sourceClass);
+            for (PropertyDescriptor destination : this.properties(destinationClass).values()) {
+                PropertyDescriptor source = sourceProperties.get(destination.getName());
+                if (destination.getWriteMethod() == null || source == null || source.getReadMethod() == null
+                    || explicitRoots.contains(destination.getName())) {
+                    continue;
+                }
+                Step step = this.compileStep(sourceClass, source.getName(), destinationClass, destination.getName());
+                if (step == null) {
+                    return UNSUPPORTED;
+                }
+                steps.add(step);
+            }
+            // 显式字段映射
+            for (Map.Entry<String, String> entry : explicit.entrySet()) {
+                Step step = this.compileStep(sourceClass, entry.getValue(), destinationClass, entry.getKey());
+                if (step == null) {
+                    return UNSUPPORTED;
+                }
+                steps.add(step);
+            }
+            return new Plan(constructor, steps.toArray(new Step[0]));
+        } catch (Exception e) {
+            logger.debug("compile mapping [{} -> {}] failed, fallback to dozer：{}", sourceClass.getName(),
+                destinationClass.getName(), e.getMessage());
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * 生成单个属性的转换步骤
+     *
+     * @return 转换步骤，无法等价转换时返回null
+     */
+    private Step compileStep(Class<?> sourceClass, String sourcePath, Class<?> destinationClass,
+                             String destinationPath) throws IllegalAccessException, NoSuchMethodException {
+        // 源属性读取链
+        List<MethodHandle> readers = new ArrayList<>();
+        Class<?> sourceType = sourceClass;
+        for (String name : sourcePath.split("\\.")) {
+            PropertyDescriptor descriptor = this.properties(sourceType).get(name);
+            if (descriptor == null || descriptor.getReadMethod() == null) {
+                return null;
+            }
+            readers.add(LOOKUP.unreflect(descriptor.getReadMethod()).asType(GETTER_TYPE));
+            sourceType = descriptor.getPropertyType();
+        }
+        // 目标属性写入链，中间对象为null时创建
+        String[] names = destinationPath.split("\\.");
+        MethodHandle[] getters = new MethodHandle[names.length - 1];
+        MethodHandle[] setters = new MethodHandle[names.length];
+        MethodHandle[] constructors = new MethodHandle[names.length - 1];
+        Class<?> destinationType = destinationClass;
+        for (int i = 0; i < names.length; i++) {
+            PropertyDescriptor descriptor = this.properties(destinationType).get(names[i]);
+            if (descriptor == null || descriptor.getWriteMethod() == null) {
+                return null;
+            }
+            setters[i] = LOOKUP.unreflect(descriptor.getWriteMethod()).asType(SETTER_TYPE);
+            destinationType = descriptor.getPropertyType();
+            if (i < names.length - 1) {
+                if (descriptor.getReadMethod() == null) {
+                    return null;
+                }
+                getters[i] = LOOKUP.unreflect(descriptor.getReadMethod()).asType(GETTER_TYPE);
+                constructors[i] = LOOKUP.findConstructor(destinationType, MethodType.methodType(void.class))
+                    .asType(CONSTRUCTOR_TYPE);
+            }
+        }
+        // 只处理类型一致的不可变值，其余交由dozer
+        if (sourceType != destinationType || !this.isCopyable(sourceType)) {
+            return null;
+        }
+        return new Step(readers.toArray(new MethodHandle[0]), getters, setters, constructors,
+            destinationType.isPrimitive());
+    }
+
+    private boolean isCopyable(Class<?> type) {
+        if (this.convertedTypes.contains(type)) {
+            return false;
+        }
+        return type.isPrimitive() || type.isEnum() || IMMUTABLE_TYPES.contains(type);
+    }
+
+    private Map<String, PropertyDescriptor> properties(Class<?> type) {
+        return this.properties.computeIfAbsent(type, key -> {
+            try {
+                Map<String, PropertyDescriptor> map = new HashMap<>();
+                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(key).getPropertyDescriptors()) {
+                    if (!"class".equals(descriptor.getName()) && isPublic(descriptor.getReadMethod())
+                        && isPublic(descriptor.getWriteMethod())) {
+                        map.put(descriptor.getName(), descriptor);
+                    }
+                }
+                return map;
+            } catch (IntrospectionException e) {
+                throw new MappingException(e);
+            }
+        });
+    }
+
+    private static boolean isPublic(Method method) {
+        return method == null || (Modifier.isPublic(method.getModifiers())
+            && Modifier.isPublic(method.getDeclaringClass().getModifiers()));
+    }
+
+    private static boolean matches(Class<?> mappedSource, Class<?> mappedDestination, Class<?> sourceClass,
+                                   Class<?> destinationClass) {
+        return mappedSource.isAssignableFrom(sourceClass) && mappedDestination.isAssignableFrom(destinationClass);
+    }
+
+    private static String root(String path) {
+        int index = path.indexOf(PATH_SEPARATOR);
+        return index < 0 ? path : path.substring(0, index);
+    }
+
+    /**
+     * 解析dozer映射文件
+     * 只支持不带属性的class-a、class-b及field（a、b）配置，其余配置对应的类型对交由dozer转换
+     */
+    private static void parse(InputStream in, List<ClassMapping> classMappings, List<Class<?>[]> unsupportedMappings,
+                              Set<Class<?>> convertedTypes) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setExpandEntityReferences(false);
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        Document document = builder.parse(in);
+        // 自定义转换器
+        NodeList converters = document.getElementsByTagName("converter");
+        for (int i = 0; i < converters.getLength(); i++) {
+            Element converter = (Element) converters.item(i);
+            if (!VALUE_PRESERVING_CONVERTERS.contains(converter.getAttribute("type"))) {
+                addClass(convertedTypes, childText(converter, "class-a"));
+                addClass(convertedTypes, childText(converter, "class-b"));
+            }
+        }
+        NodeList mappings = document.getElementsByTagName("mapping");
+        for (int i = 0; i < mappings.getLength(); i++) {
+            Element mapping = (Element) mappings.item(i);
+            // 指定map-id的映射只在显式引用时生效
+            if (mapping.hasAttribute("map-id")) {
+                continue;
+            }
+            Class<?> classA = loadClass(childText(mapping, "class-a"));
+            Class<?> classB = loadClass(childText(mapping, "class-b"));
+            if (classA == null || classB == null) {
+                continue;
+            }
+            ClassMapping classMapping = new ClassMapping(classA, classB);
+            boolean supported = mapping.getAttributes().getLength() == 0;
+            for (Node node = mapping.getFirstChild(); node != null && supported; node = node.getNextSibling()) {
+                if (node.getNodeType() != Node.ELEMENT_NODE) {
+                    continue;
+                }
+                Element element = (Element) node;
+                switch (element.getTagName()) {
+                    case "class-a":
+                    case "class-b":
+                        supported = element.getAttributes().getLength() == 0;
+                        break;
+                    case "field":
+                        Element a = child(element, "a");
+                        Element b = child(element, "b");
+                        supported = element.getAttributes().getLength() == 0 && a != null && b != null
+                            && a.getAttributes().getLength() == 0 && b.getAttributes().getLength() == 0
+                            && element.getElementsByTagName("*").getLength() == 2;
+                        if (supported) {
+                            classMapping.fields.put(a.getTextContent().trim(), b.getTextContent().trim());
+                        }
+                        break;
+                    default:
+                        supported = false;
+                }
+            }
+            if (supported) {
+                classMappings.add(classMapping);
+            } else {
+                unsupportedMappings.add(new Class<?>[]{classA, classB});
+                unsupportedMappings.add(new Class<?>[]{classB, classA});
+            }
+        }
+    }
+
+    private static Element child(Element parent, String tagName) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && tagName.equals(((Element) node).getTagName())) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    private static String childText(Element parent, String tagName) {
+        Element child = child(parent, tagName);
+        return child == null ? null : child.getTextContent().trim();
+    }
+
+    private static void addClass(Set<Class<?>> classes, String className) {
+        Class<?> type = loadClass(className);
+        if (type != null) {
+            classes.add(type);
+        }
+    }
+
+    private static Class<?> loadClass(String className) {
+        if (className == null || className.isEmpty()) {
+            return null;
+        }
+        try {
+            return ClassUtils.forName(className, CompiledMapper.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.warn("dozer mapping class [{}] not found", className);
+            return null;
+        }
+    }
+
+    /**
+     * 映射文件中的类型映射
+     */
+    private static final class ClassMapping {
+        private final Class<?> classA;
+        private final Class<?> classB;
+        /** 字段映射，key为class-a的属性路径，value为class-b的属性路径 */
+        private final Map<String, String> fields = new LinkedHashMap<>();
+
+        private ClassMapping(Class<?> classA, Class<?> classB) {
+            this.classA = classA;
+            this.classB = classB;
+        }
+    }
+
+    /**
+     * 转换计划
+     */
+    public static final class Plan {
+        /** 目标对象构造方法 */
+        private final MethodHandle constructor;
+        /** 属性转换步骤 */
+        private final Step[] steps;
+
+        private Plan(MethodHandle constructor, Step[] steps) {
+            this.constructor = constructor;
+            this.steps = steps;
+        }
+
+        /**
+         * 转换为新的目标对象
+         *
+         * @param source 源对象
+         * @return 目标对象
+         */
+        public Object map(Object source) {
+            if (this.constructor == null) {
+                throw new MappingException("目标类型无法实例化");
+            }
+            try {
+                Object destination = (Object) this.constructor.invokeExact();
+                this.copy(source, destination, true, true);
+                return destination;
+            } catch (MappingException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new MappingException(e);
+            }
+        }
+
+        /**
+         * 拷贝到已存在的目标对象
+         *
+         * @param source      源对象
+         * @param destination 目标对象
+         */
+        public void copy(Object source, Object destination) {
+            this.copy(source, destination, true, true);
+        }
+
+        /**
+         * 拷贝到已存在的目标对象
+         *
+         * @param source         源对象
+         * @param destination    目标对象
+         * @param mapNull        是否拷贝null值
+         * @param mapEmptyString 是否拷贝空字符串
+         */
+        public void copy(Object source, Object destination, boolean mapNull, boolean mapEmptyString) {
+            try {
+                for (Step step : this.steps) {
+                    step.apply(source, destination, mapNull, mapEmptyString);
+                }
+            } catch (Throwable e) {
+                throw new MappingException(e);
+            }
+        }
+    }
+
+    /**
+     * 单个属性的转换步骤
+     */
+    private static final class Step {
+        /** 源属性读取链 */
+        private final MethodHandle[] readers;
+        /** 目标中间对象读取 */
+        private final MethodHandle[] getters;
+        /** 目标属性写入链 */
+        private final MethodHandle[] setters;
+        /** 目标中间对象构造方法 */
+        private final MethodHandle[] constructors;
+        /** 目标属性是否为基本类型 */
+        private final boolean primitive;
+
+        private Step(MethodHandle[] readers, MethodHandle[] getters, MethodHandle[] setters,
+                     MethodHandle[] constructors, boolean primitive) {
+            this.readers = readers;
+            this.getters = getters;
+            this.setters = setters;
+            this.constructors = constructors;
+            this.primitive = primitive;
+        }
+
+        private void apply(Object source, Object destination, boolean mapNull, boolean mapEmptyString)
+            throws Throwable {
+            // 读取源值，中间对象为null时源值为null
+            Object value = source;
+            for (MethodHandle reader : this.readers) {
+                value = (Object) reader.invokeExact(value);
+                if (value == null) {
+                    break;
+                }
+            }
+            // 与dozer一致，不拷贝的值不创建中间对象
+            if ((value == null && !mapNull) || (!mapEmptyString && "".equals(value))) {
+                return;
+            }
+            // 与dozer一致，深度映射时即使源值为null也创建中间对象
+            Object target = destination;
+            for (int i = 0; i < this.getters.length; i++) {
+                Object next = (Object) this.getters[i].invokeExact(target);
+                if (next == null) {
+                    next = (Object) this.constructors[i].invokeExact();
+                    this.setters[i].invokeExact(target, next);
+                }
+                target = next;
+            }
+            // 基本类型无法写入null（源中间对象为null时）
+            if (value == null && this.primitive) {
+                return;
+            }
+            this.setters[this.setters.length - 1].invokeExact(target, value);
+        }
+    }
+}
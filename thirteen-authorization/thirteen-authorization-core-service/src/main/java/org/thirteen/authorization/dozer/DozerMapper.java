@@ -5,10 +5,12 @@ import org.dozer.loader.api.BeanMappingBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.dozer.loader.api.TypeMappingOptions.mapEmptyString;
@@ -17,6 +19,7 @@ import static org.dozer.loader.api.TypeMappingOptions.mapNull;
 /**
  * @author Aaron.Sun
  * @description 针对对象转换器dozer添加一层封装，避免传入对象为空时报错
+ * 优先使用预编译的转换计划，无法等价转换的类型对交由dozer转换
  * @date Created in 10:44 2018/1/19
  * @modified By
  */
@@ -24,10 +27,14 @@ import static org.dozer.loader.api.TypeMappingOptions.mapNull;
 public class DozerMapper {
 
     private final DozerBeanMapper mapper;
+    private final CompiledMapper compiledMapper;
+    /** 部分拷贝的dozer转换器缓存 */
+    private final Map<CopyKey, DozerBeanMapper> copyMappers = new ConcurrentHashMap<>();
 
     @Autowired
-    public DozerMapper(DozerBeanMapper mapper) {
+    public DozerMapper(DozerBeanMapper mapper, CompiledMapper compiledMapper) {
         this.mapper = mapper;
+        this.compiledMapper = compiledMapper;
     }
 
     /**
@@ -38,10 +45,15 @@ public class DozerMapper {
      * @param <T>              数据类型
      * @return 目标对象
      */
+    @SuppressWarnings("unchecked")
     public <T> T map(Object source, Class<T> destinationClass) {
         if (source == null) {
             return null;
         }
+        CompiledMapper.Plan plan = this.compiledMapper.getPlan(source.getClass(), destinationClass);
+        if (plan != null) {
+            return (T) plan.map(source);
+        }
         return this.mapper.map(source, destinationClass);
     }
 
@@ -72,41 +84,87 @@ public class DozerMapper {
         if (source == null) {
             destinationObject = null;
         }
+        if (source != null && destinationObject != null) {
+            CompiledMapper.Plan plan = this.compiledMapper.getPlan(source.getClass(), destinationObject.getClass());
+            if (plan != null) {
+                plan.copy(source, destinationObject);
+                return;
+            }
+        }
         this.mapper.map(source, destinationObject);
     }
 
     /**
      * 基于Dozer将对象A的值拷贝到对象B中，不包含null
-     * 高并发场景慎用！！！
+     * 优先使用预编译的转换计划；无法等价转换时，使用按(源类型, 目标类型, mapNull, mapEmptyString)缓存的dozer转换器
      *
      * @param source            源对象
      * @param destinationObject 目标对象
      * @param mapNull           是否拷贝null值
      * @param mapEmptyString    是否拷贝空字符串
      */
-    @SuppressWarnings("unchecked")
     public void copy(final Object source, final Object destinationObject, final boolean mapNull,
                      final boolean mapEmptyString) {
-        // WeakReference弱引用
-        // 当一个对象仅仅被weak reference指向, 而没有任何其他strong reference指向的时候, 如果GC运行, 那么这个对象就会被回收
-        WeakReference weakReference = new WeakReference(new DozerBeanMapper());
-        // 获得weak reference引用的object
-        DozerBeanMapper mapper = (DozerBeanMapper) weakReference.get();
-        // 断言为非空
-        assert mapper != null;
+        CompiledMapper.Plan plan = this.compiledMapper.getPlan(source.getClass(), destinationObject.getClass());
+        if (plan != null) {
+            plan.copy(source, destinationObject, mapNull, mapEmptyString);
+            return;
+        }
+        CopyKey key = new CopyKey(source.getClass(), destinationObject.getClass(), mapNull, mapEmptyString);
+        this.copyMappers.computeIfAbsent(key, DozerMapper::createCopyMapper).map(source, destinationObject);
+    }
+
+    /**
+     * 创建部分拷贝的dozer转换器（是否拷贝null值，是否拷贝空字符串），dozer转换器初始化后线程安全，可复用
+     *
+     * @param key 拷贝规则
+     * @return dozer转换器
+     */
+    private static DozerBeanMapper createCopyMapper(CopyKey key) {
+        DozerBeanMapper mapper = new DozerBeanMapper();
         // 添加映射规则（是否拷贝null值，是否拷贝空字符串）
         mapper.addMapping(new BeanMappingBuilder() {
             @Override
             protected void configure() {
-                mapping(source.getClass(), destinationObject.getClass(), mapNull(mapNull), mapEmptyString(mapEmptyString));
+                mapping(key.sourceClass, key.destinationClass, mapNull(key.mapNull), mapEmptyString(key.mapEmptyString));
             }
         });
-        // 拷贝
-        mapper.map(source, destinationObject);
-        // 销毁
-        mapper.destroy();
-        // 清理
-        weakReference.clear();
+        return mapper;
+    }
+
+    /**
+     * 部分拷贝规则
+     */
+    private static final class CopyKey {
+        private final Class<?> sourceClass;
+        private final Class<?> destinationClass;
+        private final boolean mapNull;
+        private final boolean mapEmptyString;
+
+        private CopyKey(Class<?> sourceClass, Class<?> destinationClass, boolean mapNull, boolean mapEmptyString) {
+            this.sourceClass = sourceClass;
+            this.destinationClass = destinationClass;
+            this.mapNull = mapNull;
+            this.mapEmptyString = mapEmptyString;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CopyKey)) {
+                return false;
+            }
+            CopyKey other = (CopyKey) o;
+            return this.sourceClass == other.sourceClass && this.destinationClass == other.destinationClass
+                && this.mapNull == other.mapNull && this.mapEmptyString == other.mapEmptyString;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.sourceClass, this.destinationClass, this.mapNull, this.mapEmptyString);
+        }
     }
 
 }
@@ -10,4 +10,28 @@ public class RedisKey {
 
     public static final String REDIS_TKONE_GROUP = "redis_token_group";
 
+    /** redisToken，完整key为 redis_token:{token} */
+    public static final String REDIS_TOKEN = "redis_token";
+
+    /** 用户账号下的所有token，完整key为 redis_token_account:{用户账号} */
+    public static final String REDIS_TOKEN_ACCOUNT = "redis_token_account";
+
+    /** 用户权限快照，完整key为 authority_snapshot:{版本号}:{用户版本号}:{用户账号} */
+    public static final String AUTHORITY_SNAPSHOT = "authority_snapshot";
+
+    /** 用户权限快照版本号，全局失效时递增 */
+    public static final String AUTHORITY_SNAPSHOT_VERSION = "authority_snapshot_version";
+
+    /** 单个用户的权限快照版本号，该用户失效时递增，完整key为 authority_snapshot_account_version:{用户账号} */
+    public static final String AUTHORITY_SNAPSHOT_ACCOUNT_VERSION = "authority_snapshot_account_version";
+
+    /** 权限变更通知频道 */
+    public static final String PERMISSION_CHANGED_CHANNEL = "permission_changed";
+
+    /** 树结构数据变更通知频道 */
+    public static final String TREE_CHANGED_CHANNEL = "tree_changed";
+
+    /** 用户权限快照失效通知频道 */
+    public static final String AUTHORITY_EVICTED_CHANNEL = "authority_evicted";
+
 }
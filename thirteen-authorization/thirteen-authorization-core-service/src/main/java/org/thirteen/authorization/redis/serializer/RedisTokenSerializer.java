@@ -0,0 +1,257 @@
+package org.thirteen.authorization.redis.serializer;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.thirteen.authorization.common.cache.LocalCache;
+import org.thirteen.authorization.redis.token.RedisToken;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Aaron.Sun
+ * @description redisToken二进制序列化
+ * 格式：版本号(1字节) + 时间字段标识(1字节) + token、account、ip（长度前缀的UTF-8字符串）
+ * + signTime、reSignTime、lastAccessTime（毫秒时间戳，8字节，为null时不写入）；
+ * 读取时兼容JDK序列化的旧数据；
+ * 更新最后访问时间的lua脚本依赖以下公开的格式常量，最后访问时间须始终为最后一个字段
+ * @date Created in 17:05 2026/10/18
+ * @modified By
+ */
+public class RedisTokenSerializer implements RedisSerializer<RedisToken> {
+
+    /** 当前格式版本 */
+    public static final byte VERSION_1 = 1;
+    /** JDK序列化数据的前两个字节 */
+    public static final byte JDK_MAGIC_0 = (byte) 0xAC;
+    public static final byte JDK_MAGIC_1 = (byte) 0xED;
+    /** 时间字段标识所在的下标 */
+    public static final int FLAGS_INDEX = 1;
+    /** 时间字段标识 */
+    private static final int SIGN_TIME_FLAG = 1;
+    private static final int RE_SIGN_TIME_FLAG = 1 << 1;
+    public static final int LAST_ACCESS_TIME_FLAG = 1 << 2;
+    /** 最后访问时间（最后一个字段）的字节数 */
+    public static final int LAST_ACCESS_TIME_BYTES = Long.BYTES;
+    /** 字符串常量池容量 */
+    private static final int INTERN_POOL_SIZE = 4096;
+
+    private final ZoneId zoneId;
+    private final JdkSerializationRedisSerializer jdkSerializer;
+    /** 账号及IP重复率高，反序列化时复用同一字符串对象 */
+    private final LocalCache<String, String> internPool = new LocalCache<>(INTERN_POOL_SIZE, TimeUnit.HOURS.toMillis(1));
+
+    public RedisTokenSerializer(ClassLoader classLoader) {
+        this(ZoneId.systemDefault(), new JdkSerializationRedisSerializer(classLoader));
+    }
+
+    public RedisTokenSerializer(ZoneId zoneId, JdkSerializationRedisSerializer jdkSerializer) {
+        this.zoneId = zoneId;
+        this.jdkSerializer = jdkSerializer;
+    }
+
+    @Override
+    public byte[] serialize(RedisToken redisToken) throws SerializationException {
+        if (redisToken == null) {
+            return new byte[0];
+        }
+        byte[] token = encode(redisToken.getToken());
+        byte[] account = encode(redisToken.getAccount());
+        byte[] ip = encode(redisToken.getIp());
+        int flags = 0;
+        int size = 2 + sizeOf(token) + sizeOf(account) + sizeOf(ip);
+        if (redisToken.getSignTime() != null) {
+            flags |= SIGN_TIME_FLAG;
+            size += Long.BYTES;
+        }
+        if (redisToken.getReSignTime() != null) {
+            flags |= RE_SIGN_TIME_FLAG;
+            size += Long.BYTES;
+        }
+        if (redisToken.getLastAccessTime() != null) {
+            flags |= LAST_ACCESS_TIME_FLAG;
+            size += Long.BYTES;
+        }
+        Writer writer = new Writer(size);
+        writer.writeByte(VERSION_1);
+        writer.writeByte(flags);
+        writer.writeString(token);
+        writer.writeString(account);
+        writer.writeString(ip);
+        if (redisToken.getSignTime() != null) {
+            writer.writeLong(this.toEpochMilli(redisToken.getSignTime()));
+        }
+        if (redisToken.getReSignTime() != null) {
+            writer.writeLong(this.toEpochMilli(redisToken.getReSignTime()));
+        }
+        if (redisToken.getLastAccessTime() != null) {
+            writer.writeLong(this.toEpochMilli(redisToken.getLastAccessTime()));
+        }
+        return writer.bytes;
+    }
+
+    @Override
+    public RedisToken deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        // 兼容JDK序列化的旧数据
+        if (bytes.length > 1 && bytes[0] == JDK_MAGIC_0 && bytes[1] == JDK_MAGIC_1) {
+            return (RedisToken) this.jdkSerializer.deserialize(bytes);
+        }
+        if (bytes[0] != VERSION_1) {
+            throw new SerializationException("Unsupported redis token version: " + bytes[0]);
+        }
+        try {
+            Reader reader = new Reader(bytes, 1);
+            int flags = reader.readByte();
+            RedisToken redisToken = new RedisToken();
+            redisToken.setToken(reader.readString());
+            redisToken.setAccount(this.intern(reader.readString()));
+            redisToken.setIp(this.intern(reader.readString()));
+            if ((flags & SIGN_TIME_FLAG) != 0) {
+                redisToken.setSignTime(this.toLocalDateTime(reader.readLong()));
+            }
+            if ((flags & RE_SIGN_TIME_FLAG) != 0) {
+                redisToken.setReSignTime(this.toLocalDateTime(reader.readLong()));
+            }
+            if ((flags & LAST_ACCESS_TIME_FLAG) != 0) {
+                redisToken.setLastAccessTime(this.toLocalDateTime(reader.readLong()));
+            }
+            return redisToken;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Cannot deserialize redis token", e);
+        }
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String interned = this.internPool.get(value);
+        if (interned == null) {
+            this.internPool.put(value, value);
+            interned = value;
+        }
+        return interned;
+    }
+
+    private long toEpochMilli(LocalDateTime time) {
+        return time.atZone(this.zoneId).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), this.zoneId);
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 长度前缀（变长整数，值为长度加1，0表示null）加内容的字节数
+     */
+    private static int sizeOf(byte[] value) {
+        int length = value == null ? 0 : value.length + 1;
+        int size = 1;
+        while ((length >>>= 7) != 0) {
+            size++;
+        }
+        return size + (value == null ? 0 : value.length);
+    }
+
+    /**
+     * 定长字节数组写入
+     */
+    private static final class Writer {
+        private final byte[] bytes;
+        private int position;
+
+        private Writer(int size) {
+            this.bytes = new byte[size];
+        }
+
+        private void writeByte(int value) {
+            this.bytes[this.position++] = (byte) value;
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                this.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.writeByte(value);
+        }
+
+        private void writeString(byte[] value) {
+            if (value == null) {
+                this.writeVarInt(0);
+                return;
+            }
+            this.writeVarInt(value.length + 1);
+            System.arraycopy(value, 0, this.bytes, this.position, value.length);
+            this.position += value.length;
+        }
+
+        private void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                this.writeByte((int) (value >>> shift));
+            }
+        }
+    }
+
+    /**
+     * 字节数组读取
+     */
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        private Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        private int readByte() {
+            return this.bytes[this.position++] & 0xFF;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = this.readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed redis token length");
+        }
+
+        private String readString() {
+            int length = this.readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            length--;
+            if (length > this.bytes.length - this.position) {
+                throw new SerializationException("Malformed redis token length");
+            }
+            String value = new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+            this.position += length;
+            return value;
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | this.readByte();
+            }
+            return value;
+        }
+    }
+}
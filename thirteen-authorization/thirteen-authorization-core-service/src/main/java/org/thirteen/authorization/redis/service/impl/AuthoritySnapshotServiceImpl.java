@@ -0,0 +1,192 @@
+package org.thirteen.authorization.redis.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.thirteen.authorization.common.cache.LocalCache;
+import org.thirteen.authorization.common.utils.JsonUtil;
+import org.thirteen.authorization.redis.authority.AuthoritySnapshot;
+import org.thirteen.authorization.redis.event.AuthorityEvictedEvent;
+import org.thirteen.authorization.redis.keys.RedisKey;
+import org.thirteen.authorization.redis.service.AuthoritySnapshotService;
+import org.thirteen.authorization.redis.support.ChangeBroadcaster;
+import org.thirteen.authorization.service.support.TransactionCallbacks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * @author Aaron.Sun
+ * @description 用户权限快照服务接口实现类
+ * 一级缓存为本地有界缓存，二级缓存为redis（以全局版本号及用户版本号作为key的一部分，失效时递增对应的版本号）；
+ * 构建快照前读取版本号，失效后其他节点写入的旧快照使用旧的版本号，不会再被读取；
+ * 失效时通过redis频道通知所有节点清除本地缓存
+ * @date Created in 10:48 2026/10/18
+ * @modified By
+ */
+@Service
+public class AuthoritySnapshotServiceImpl implements AuthoritySnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthoritySnapshotServiceImpl.class);
+
+    @Value("${authority-snapshot-expire:1800}")
+    private Integer snapshotExpire;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ChangeBroadcaster<AuthorityEvictedEvent> authorityEvictBroadcaster;
+    private final LocalCache<String, AuthoritySnapshot> localCache;
+    /** 本地失效代数，构建快照期间发生失效时，构建结果不再放入缓存 */
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public AuthoritySnapshotServiceImpl(StringRedisTemplate stringRedisTemplate,
+                                        ChangeBroadcaster<AuthorityEvictedEvent> authorityEvictBroadcaster,
+                                        @Value("${authority-snapshot-local-size:10000}") Integer localSize,
+                                        @Value("${authority-snapshot-local-expire:60}") Integer localExpire) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.authorityEvictBroadcaster = authorityEvictBroadcaster;
+        // 本地缓存存活时间较短，用于兜底丢失的失效通知
+        this.localCache = new LocalCache<>(localSize, TimeUnit.SECONDS.toMillis(localExpire));
+    }
+
+    /**
+     * 获取用户权限快照，缓存中不存在时由loader构建并放入缓存
+     *
+     * @param account 用户账号
+     * @param loader  快照构建方法
+     * @return 用户权限快照
+     */
+    @Override
+    public AuthoritySnapshot get(String account, Function<String, AuthoritySnapshot> loader) {
+        AuthoritySnapshot snapshot = this.localCache.get(account);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long gen = this.generation.get();
+        long[] versions = this.currentVersions(account);
+        if (versions != null) {
+            snapshot = this.getFromRedis(versions, account);
+        }
+        if (snapshot == null) {
+            snapshot = loader.apply(account);
+            if (versions != null) {
+                snapshot.setVersion(versions[0]);
+                // 构建期间发生失效时，版本号已递增，写入的旧快照不会再被读取
+                this.putToRedis(versions, account, snapshot);
+            }
+        }
+        if (gen == this.generation.get()) {
+            this.localCache.put(account, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 失效单个用户的权限快照（存在事务时，在事务提交后执行），递增用户版本号并通知所有节点清除本地缓存
+     *
+     * @param account 用户账号
+     */
+    @Override
+    public void evict(String account) {
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                String versionKey = accountVersionKey(account);
+                this.stringRedisTemplate.opsForValue().increment(versionKey);
+                // 用户版本号比快照多保留一个有效期，过期前写入的旧快照均已过期
+                this.stringRedisTemplate.expire(versionKey, this.snapshotExpire * 2L, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                logger.error("evict authority snapshot [{}] error：{{}}", account, e);
+            }
+        });
+        this.authorityEvictBroadcaster.publish(new AuthorityEvictedEvent(account));
+    }
+
+    /**
+     * 失效所有用户的权限快照（存在事务时，在事务提交后执行），递增全局版本号并通知所有节点清除本地缓存
+     */
+    @Override
+    public void evictAll() {
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                // 递增版本号，旧版本的快照不再被读取，由过期时间自动清理
+                this.stringRedisTemplate.opsForValue().increment(RedisKey.AUTHORITY_SNAPSHOT_VERSION);
+            } catch (Exception e) {
+                logger.error("evict all authority snapshot error：{{}}", e);
+            }
+        });
+        this.authorityEvictBroadcaster.publish(new AuthorityEvictedEvent());
+    }
+
+    /**
+     * 用户权限快照失效时（本节点或其他节点），清除本地缓存
+     *
+     * @param event 用户权限快照失效事件
+     */
+    @EventListener
+    public void onAuthorityEvicted(AuthorityEvictedEvent event) {
+        this.generation.incrementAndGet();
+        if (event.getAccount() == null) {
+            this.localCache.clear();
+        } else {
+            this.localCache.remove(event.getAccount());
+        }
+    }
+
+    /**
+     * 获取当前的全局版本号及用户版本号（一次往返），redis不可用时返回null（只使用本地缓存）
+     *
+     * @param account 用户账号
+     * @return 全局版本号及用户版本号
+     */
+    private long[] currentVersions(String account) {
+        try {
+            List<String> versions = this.stringRedisTemplate.opsForValue()
+                .multiGet(Arrays.asList(RedisKey.AUTHORITY_SNAPSHOT_VERSION, accountVersionKey(account)));
+            if (versions == null) {
+                return null;
+            }
+            return new long[]{parseVersion(versions.get(0)), parseVersion(versions.get(1))};
+        } catch (Exception e) {
+            logger.error("get authority snapshot version error：{{}}", e);
+            return null;
+        }
+    }
+
+    private AuthoritySnapshot getFromRedis(long[] versions, String account) {
+        try {
+            String json = this.stringRedisTemplate.opsForValue().get(snapshotKey(versions, account));
+            return json == null ? null : JsonUtil.parseObject(json, AuthoritySnapshot.class);
+        } catch (Exception e) {
+            logger.error("get authority snapshot [{}] error：{{}}", account, e);
+            return null;
+        }
+    }
+
+    private void putToRedis(long[] versions, String account, AuthoritySnapshot snapshot) {
+        try {
+            this.stringRedisTemplate.opsForValue().set(snapshotKey(versions, account),
+                JsonUtil.toJsonString(snapshot), this.snapshotExpire, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.error("put authority snapshot [{}] error：{{}}", account, e);
+        }
+    }
+
+    private static long parseVersion(String version) {
+        return version == null ? 0L : Long.parseLong(version);
+    }
+
+    private static String snapshotKey(long[] versions, String account) {
+        return RedisKey.AUTHORITY_SNAPSHOT + ":" + versions[0] + ":" + versions[1] + ":" + account;
+    }
+
+    private static String accountVersionKey(String account) {
+        return RedisKey.AUTHORITY_SNAPSHOT_ACCOUNT_VERSION + ":" + account;
+    }
+}
@@ -0,0 +1,32 @@
+package org.thirteen.authorization.redis.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.thirteen.authorization.redis.event.PermissionChangedEvent;
+import org.thirteen.authorization.redis.service.PermissionChangeService;
+import org.thirteen.authorization.redis.support.ChangeBroadcaster;
+
+/**
+ * @author Aaron.Sun
+ * @description 权限变更通知服务接口实现类，由权限变更事件广播发布
+ * @date Created in 15:20 2026/10/18
+ * @modified By
+ */
+@Service
+public class PermissionChangeServiceImpl implements PermissionChangeService {
+
+    private final ChangeBroadcaster<PermissionChangedEvent> permissionChangeBroadcaster;
+
+    @Autowired
+    public PermissionChangeServiceImpl(ChangeBroadcaster<PermissionChangedEvent> permissionChangeBroadcaster) {
+        this.permissionChangeBroadcaster = permissionChangeBroadcaster;
+    }
+
+    /**
+     * 发布权限变更事件（存在事务时，在事务提交后发布），本节点及其他节点均会收到
+     */
+    @Override
+    public void publish() {
+        this.permissionChangeBroadcaster.publish(new PermissionChangedEvent());
+    }
+}
@@ -1,32 +1,127 @@
 package org.thirteen.authorization.redis.service.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
+import org.thirteen.authorization.common.utils.StringUtil;
+import org.thirteen.authorization.exceptions.BusinessException;
 import org.thirteen.authorization.redis.keys.RedisKey;
+import org.thirteen.authorization.redis.serializer.RedisTokenSerializer;
 import org.thirteen.authorization.redis.service.RedisTokenService;
 import org.thirteen.authorization.redis.token.RedisToken;
+import org.thirteen.authorization.redis.token.RedisTokenPage;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Aaron.Sun
  * @description redisToken服务接口实现类
+ * 默认每个token存储为一个key（redis_token:{token}），过期时间为redis-token-expire，
+ * 同时以用户账号为key存储该用户的所有token（redis_token_account:{用户账号}），便于按用户查找；
+ * 旧的存储方式（所有token存放在一个hash中）可通过 redis-token-store-mode=hash 继续使用；
+ * 最后访问时间先记录在内存中，每隔 redis-token-touch-interval 毫秒以管道方式批量写入redis（不大于0时直接写入），
+ * 写入时以lua脚本比较并设置，只更新最后访问时间及过期时间，不覆盖期间重新写入的redisToken
  * @date Created in 15:18 2020/3/7
  * @modified By
  */
 @Service
-public class RedisTokenServiceImpl implements RedisTokenService {
+public class RedisTokenServiceImpl implements RedisTokenService, InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisTokenServiceImpl.class);
+
+    /** 存储方式：每个token存储为一个key */
+    public static final String STORE_MODE_KEY = "key";
+    /** 存储方式：所有token存放在一个hash中（旧的存储方式） */
+    public static final String STORE_MODE_HASH = "hash";
+    /** 每次扫描的数量 */
+    private static final int SCAN_COUNT = 1000;
+    private static final String TOKEN_KEY_PREFIX = RedisKey.REDIS_TOKEN + ":";
+    private static final String ACCOUNT_KEY_PREFIX = RedisKey.REDIS_TOKEN_ACCOUNT + ":";
+    /**
+     * 判断已写入的redisToken是否可以更新最后访问时间，由RedisTokenSerializer的格式常量生成：
+     * 最后访问时间为最后一个字段（毫秒时间戳），存在时时间字段标识中的对应位为1；
+     * 去掉最后访问时间后须与读取时一致（ARGV[1]），且最后访问时间早于本次写入的（ARGV[2]）；
+     * JDK序列化的旧数据直接更新（lua字符串下标从1开始）
+     */
+    private static final String TOUCHABLE_SCRIPT = String.format(
+        "local function accessTime(value) "
+            + "local time = 0 "
+            + "for i = #value - %1$d, #value do time = time * 256 + string.byte(value, i) end "
+            + "return time end "
+            + "local function touchable(value) "
+            + "if not value then return false end "
+            + "if string.sub(value, 1, 2) == '\\%2$d\\%3$d' then return true end "
+            + "if string.byte(value, 1) ~= %4$d then return false end "
+            + "local flags = string.byte(value, %5$d) "
+            + "if bit.band(flags, %6$d) == 0 then return value == ARGV[1] end "
+            + "if accessTime(value) >= accessTime(ARGV[2]) then return false end "
+            + "return string.sub(value, 1, %7$d) .. string.char(flags - %6$d) .. string.sub(value, %8$d, %9$d) "
+            + "== ARGV[1] end ",
+        RedisTokenSerializer.LAST_ACCESS_TIME_BYTES - 1, RedisTokenSerializer.JDK_MAGIC_0 & 0xFF,
+        RedisTokenSerializer.JDK_MAGIC_1 & 0xFF, RedisTokenSerializer.VERSION_1, RedisTokenSerializer.FLAGS_INDEX + 1,
+        RedisTokenSerializer.LAST_ACCESS_TIME_FLAG, RedisTokenSerializer.FLAGS_INDEX,
+        RedisTokenSerializer.FLAGS_INDEX + 2, -(RedisTokenSerializer.LAST_ACCESS_TIME_BYTES + 1));
+    /** 更新token的key中的最后访问时间及过期时间，KEYS[1]：token的key，ARGV[3]：过期时间（秒） */
+    private static final byte[] TOUCH_KEY_SCRIPT = raw(TOUCHABLE_SCRIPT
+        + "if touchable(redis.call('GET', KEYS[1])) then "
+        + "redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3]) return 1 end return 0");
+    /** 更新旧的hash中的最后访问时间，KEYS[1]：旧的hash，ARGV[3]：token */
+    private static final byte[] TOUCH_HASH_SCRIPT = raw(TOUCHABLE_SCRIPT
+        + "if touchable(redis.call('HGET', KEYS[1], ARGV[3])) then "
+        + "redis.call('HSET', KEYS[1], ARGV[3], ARGV[2]) return 1 end return 0");
 
     @Value("${redis-token-expire}")
     private Integer redisTokenExpire;
+    @Value("${redis-token-store-mode:key}")
+    private String storeMode;
+    @Value("${redis-token-touch-interval:1000}")
+    private Long touchInterval;
+    @Value("${redis-token-touch-slack:30}")
+    private Long touchSlack;
 
     private final RedisTemplate<String, RedisToken> redisTemplate;
+    /** 待写入redis的最后访问时间，同一token只保留最新的一次 */
+    private final Map<String, RedisToken> pendingTouches = new ConcurrentHashMap<>();
+    /** 定时批量写入最后访问时间的执行器，未启用延迟写入时为null */
+    private ScheduledExecutorService touchExecutor;
+    /** 旧的hash是否已迁移完成，迁移完成后读取时不再兼容旧的存储方式 */
+    private volatile boolean legacyDrained = false;
 
     @Autowired
-    public RedisTokenServiceImpl(RedisTemplate<String, RedisToken> redisTemplate) {
+    public RedisTokenServiceImpl(@Qualifier("redisTokenTemplate") RedisTemplate<String, RedisToken> redisTemplate) {
         this.redisTemplate = redisTemplate;
     }
 
@@ -38,8 +133,13 @@ public class RedisTokenServiceImpl implements RedisTokenService {
      */
     @Override
     public void put(String token, RedisToken redisToken) {
-        // TODO 只有顶级Key上可以配置过期，过期自动删除待完善
-        this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).put(token, redisToken);
+        // 直接写入时，丢弃尚未写入的最后访问时间，避免之后覆盖为旧的redisToken
+        this.pendingTouches.remove(token);
+        if (this.isHashMode()) {
+            this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).put(token, redisToken);
+            return;
+        }
+        this.putWithExpire(token, redisToken, this.redisTokenExpire);
     }
 
     /**
@@ -50,7 +150,19 @@ public class RedisTokenServiceImpl implements RedisTokenService {
      */
     @Override
     public RedisToken get(String token) {
-        return (RedisToken) this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).get(token);
+        if (this.isHashMode()) {
+            return (RedisToken) this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).get(token);
+        }
+        RedisToken redisToken = this.redisTemplate.opsForValue().get(tokenKey(token));
+        if (redisToken == null && !this.legacyDrained) {
+            // 兼容旧的存储方式，读取到后迁移为新的存储方式
+            redisToken = (RedisToken) this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).get(token);
+            if (redisToken != null) {
+                redisToken = this.migrate(token, redisToken) ? redisToken : null;
+                this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).delete(token);
+            }
+        }
+        return redisToken;
     }
 
     /**
@@ -60,7 +172,216 @@ public class RedisTokenServiceImpl implements RedisTokenService {
      */
     @Override
     public void delete(String token) {
-        this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).delete(token);
+        this.pendingTouches.remove(token);
+        if (this.isHashMode()) {
+            this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).delete(token);
+            return;
+        }
+        RedisToken redisToken = this.redisTemplate.opsForValue().get(tokenKey(token));
+        this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.del(raw(tokenKey(token)));
+            if (redisToken != null && redisToken.getAccount() != null) {
+                connection.sRem(raw(accountKey(redisToken.getAccount())), raw(token));
+            }
+            if (!this.legacyDrained) {
+                connection.hDel(raw(RedisKey.REDIS_TKONE_GROUP), raw(token));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 批量获取redisToken（一次往返）
+     *
+     * @param tokens token集合
+     * @return token及redisToken，不存在的token不包含在内
+     */
+    @Override
+    public Map<String, RedisToken> getAll(Collection<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> tokenList = new ArrayList<>(new LinkedHashSet<>(tokens));
+        List<RedisToken> values;
+        if (this.isHashMode()) {
+            values = this.redisTemplate.<String, RedisToken>opsForHash().multiGet(RedisKey.REDIS_TKONE_GROUP, tokenList);
+        } else {
+            List<String> keys = new ArrayList<>(tokenList.size());
+            tokenList.forEach(token -> keys.add(tokenKey(token)));
+            values = this.redisTemplate.opsForValue().multiGet(keys);
+        }
+        Map<String, RedisToken> result = new LinkedHashMap<>(tokenList.size());
+        for (int i = 0; i < tokenList.size(); i++) {
+            RedisToken redisToken = values == null ? null : values.get(i);
+            // 兼容旧的存储方式
+            if (redisToken == null && !this.isHashMode() && !this.legacyDrained) {
+                redisToken = this.get(tokenList.get(i));
+            }
+            if (redisToken != null) {
+                result.put(tokenList.get(i), redisToken);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量设置redisToken（一次往返）
+     *
+     * @param redisTokens token及redisToken
+     */
+    @Override
+    public void putAll(Map<String, RedisToken> redisTokens) {
+        if (redisTokens == null || redisTokens.isEmpty()) {
+            return;
+        }
+        redisTokens.keySet().forEach(this.pendingTouches::remove);
+        if (this.isHashMode()) {
+            this.redisTemplate.<String, RedisToken>opsForHash().putAll(RedisKey.REDIS_TKONE_GROUP, redisTokens);
+            return;
+        }
+        this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            redisTokens.forEach((token, redisToken) -> this.writeToken(connection, token, redisToken,
+                this.redisTokenExpire));
+            return null;
+        });
+    }
+
+    /**
+     * 批量删除redisToken
+     *
+     * @param tokens token集合
+     */
+    @Override
+    public void deleteAll(Collection<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            return;
+        }
+        tokens.forEach(this.pendingTouches::remove);
+        if (this.isHashMode()) {
+            this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).delete(tokens.toArray());
+            return;
+        }
+        List<String> tokenList = new ArrayList<>(new LinkedHashSet<>(tokens));
+        List<String> keys = new ArrayList<>(tokenList.size());
+        tokenList.forEach(token -> keys.add(tokenKey(token)));
+        // 获取redisToken中的用户账号，用于删除用户账号索引
+        List<RedisToken> values = this.redisTemplate.opsForValue().multiGet(keys);
+        this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < tokenList.size(); i++) {
+                byte[] token = raw(tokenList.get(i));
+                RedisToken redisToken = values == null ? null : values.get(i);
+                connection.del(raw(keys.get(i)));
+                if (redisToken != null && redisToken.getAccount() != null) {
+                    connection.sRem(raw(accountKey(redisToken.getAccount())), token);
+                }
+                if (!this.legacyDrained) {
+                    connection.hDel(raw(RedisKey.REDIS_TKONE_GROUP), token);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 删除用户账号下的所有redisToken（强制下线）
+     *
+     * @param account 用户账号
+     * @return 删除的数量
+     */
+    @Override
+    public int revokeAll(String account) {
+        if (StringUtil.isEmpty(account)) {
+            return 0;
+        }
+        if (this.isHashMode()) {
+            return this.revokeAllInHash(account);
+        }
+        byte[] accountKey = raw(accountKey(account));
+        Set<byte[]> members = this.redisTemplate.execute((RedisCallback<Set<byte[]>>) connection ->
+            connection.sMembers(accountKey));
+        if (members == null || members.isEmpty()) {
+            return 0;
+        }
+        members.forEach(token -> this.pendingTouches.remove(new String(token, StandardCharsets.UTF_8)));
+        List<Object> results = this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] token : members) {
+                connection.del(raw(TOKEN_KEY_PREFIX + new String(token, StandardCharsets.UTF_8)));
+            }
+            connection.del(accountKey);
+            return null;
+        });
+        // 统计实际删除的token数量（不包含用户账号索引，索引中可能存在已过期的token）
+        int count = 0;
+        for (int i = 0; i < members.size(); i++) {
+            Object result = results.get(i);
+            if (result instanceof Long && (Long) result > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 分批扫描所有redisToken，可由上一次返回的游标继续扫描
+     *
+     * @param cursor 游标，首次扫描时为空或"0"
+     * @param count  每批扫描的数量（参考值，实际返回的数量可能不同）
+     * @return 本次扫描到的redisToken及下一次扫描的游标
+     */
+    @Override
+    public RedisTokenPage scan(String cursor, int count) {
+        byte[] start = raw(StringUtil.isEmpty(cursor) ? RedisTokenPage.FINISHED_CURSOR : cursor);
+        ScanParams params = new ScanParams().count(count > 0 ? count : SCAN_COUNT);
+        return this.redisTemplate.execute((RedisCallback<RedisTokenPage>) connection -> {
+            // Spring的Cursor无法由指定的游标继续扫描，使用原生连接
+            Jedis jedis = nativeJedis(connection);
+            Map<String, RedisToken> tokens = new LinkedHashMap<>();
+            if (this.isHashMode()) {
+                ScanResult<Map.Entry<byte[], byte[]>> result = jedis.hscan(raw(RedisKey.REDIS_TKONE_GROUP), start,
+                    params);
+                for (Map.Entry<byte[], byte[]> entry : result.getResult()) {
+                    tokens.put(new String(entry.getKey(), StandardCharsets.UTF_8),
+                        this.deserializeHashValue(entry.getValue()));
+                }
+                return new RedisTokenPage(result.getCursor(), tokens);
+            }
+            params.match(TOKEN_KEY_PREFIX + "*");
+            ScanResult<byte[]> result = jedis.scan(start, params);
+            List<byte[]> keys = result.getResult();
+            if (!keys.isEmpty()) {
+                List<byte[]> values = jedis.mget(keys.toArray(new byte[0][]));
+                for (int i = 0; i < keys.size(); i++) {
+                    // 扫描期间已过期的token不返回
+                    if (values.get(i) != null) {
+                        tokens.put(new String(keys.get(i), StandardCharsets.UTF_8).substring(TOKEN_KEY_PREFIX.length()),
+                            this.deserialize(values.get(i)));
+                    }
+                }
+            }
+            return new RedisTokenPage(result.getCursor(), tokens);
+        });
+    }
+
+    /**
+     * 记录token的最后访问时间（延迟批量写入redis）
+     * 与已写入的最后访问时间相差不超过 redis-token-touch-slack 秒时，不再写入
+     *
+     * @param token      token
+     * @param redisToken redisToken
+     * @param accessTime 访问时间
+     */
+    @Override
+    public void touch(String token, RedisToken redisToken, LocalDateTime accessTime) {
+        LocalDateTime lastAccessTime = redisToken.getLastAccessTime();
+        if (lastAccessTime != null && accessTime.isBefore(lastAccessTime.plusSeconds(this.touchSlack))) {
+            return;
+        }
+        redisToken.setLastAccessTime(accessTime);
+        this.pendingTouches.put(token, redisToken);
+        // 未启用延迟写入时直接写入
+        if (this.touchExecutor == null) {
+            this.flushTouches();
+        }
     }
 
     /**
@@ -70,7 +391,23 @@ public class RedisTokenServiceImpl implements RedisTokenService {
      */
     @Override
     public Set<Object> keys() {
-        return this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).keys();
+        if (this.isHashMode()) {
+            return this.redisTemplate.boundHashOps(RedisKey.REDIS_TKONE_GROUP).keys();
+        }
+        // 使用scan分批遍历，避免keys命令阻塞redis
+        return this.redisTemplate.execute((RedisCallback<Set<Object>>) connection -> {
+            Set<Object> tokens = new HashSet<>();
+            ScanOptions options = ScanOptions.scanOptions().match(TOKEN_KEY_PREFIX + "*").count(SCAN_COUNT).build();
+            Cursor<byte[]> cursor = connection.scan(options);
+            try {
+                while (cursor.hasNext()) {
+                    tokens.add(new String(cursor.next(), StandardCharsets.UTF_8).substring(TOKEN_KEY_PREFIX.length()));
+                }
+            } finally {
+                closeCursor(cursor);
+            }
+            return tokens;
+        });
     }
 
     /**
@@ -84,4 +421,287 @@ public class RedisTokenServiceImpl implements RedisTokenService {
     public boolean isNotExpired(LocalDateTime now, LocalDateTime lastAccessTime) {
         return now.isBefore(lastAccessTime.plusSeconds(this.redisTokenExpire));
     }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (this.touchInterval == null || this.touchInterval <= 0) {
+            logger.info("redis-token-touch-interval is {}, write access time directly", this.touchInterval);
+            return;
+        }
+        this.touchExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-token-touch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.touchExecutor.scheduleWithFixedDelay(this::flushTouches, this.touchInterval, this.touchInterval,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (this.touchExecutor != null) {
+            this.touchExecutor.shutdown();
+        }
+        // 停止前写入所有待写入的最后访问时间
+        this.flushTouches();
+    }
+
+    /**
+     * 以管道方式批量写入待写入的最后访问时间
+     * 每个redisToken仅在存在且未被重新写入时更新最后访问时间及过期时间，避免重新写入已删除的token，
+     * 或以旧的redisToken覆盖期间新写入的
+     */
+    public void flushTouches() {
+        if (this.pendingTouches.isEmpty()) {
+            return;
+        }
+        Map<String, RedisToken> batch = new HashMap<>(this.pendingTouches.size());
+        for (Map.Entry<String, RedisToken> entry : this.pendingTouches.entrySet()) {
+            // 只取出当前读到的值，期间写入的新值留到下一次
+            if (this.pendingTouches.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] hashKey = raw(RedisKey.REDIS_TKONE_GROUP);
+                byte[] expire = raw(String.valueOf(this.redisTokenExpire));
+                for (Map.Entry<String, RedisToken> entry : batch.entrySet()) {
+                    RedisToken redisToken = entry.getValue();
+                    if (this.isHashMode()) {
+                        connection.eval(TOUCH_HASH_SCRIPT, ReturnType.INTEGER, 1, hashKey,
+                            this.serializeHashValue(withoutLastAccessTime(redisToken)),
+                            this.serializeHashValue(redisToken), raw(entry.getKey()));
+                        continue;
+                    }
+                    connection.eval(TOUCH_KEY_SCRIPT, ReturnType.INTEGER, 1, raw(tokenKey(entry.getKey())),
+                        this.serialize(withoutLastAccessTime(redisToken)), this.serialize(redisToken), expire);
+                    if (redisToken.getAccount() != null) {
+                        connection.expire(raw(accountKey(redisToken.getAccount())), this.redisTokenExpire);
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // 写入失败时丢弃，token的下一次访问会再次记录
+            logger.error("flush redis token access time error：{{}}", e);
+        }
+    }
+
+    /**
+     * 应用启动完成后，将旧的hash中的所有redisToken迁移为新的存储方式，已过期的直接删除
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void drainLegacyTokens() {
+        if (this.isHashMode()) {
+            return;
+        }
+        try {
+            int migrated = this.redisTemplate.execute((RedisCallback<Integer>) connection -> {
+                int count = 0;
+                List<Map.Entry<byte[], byte[]>> batch = new ArrayList<>(SCAN_COUNT);
+                ScanOptions options = ScanOptions.scanOptions().count(SCAN_COUNT).build();
+                Cursor<Map.Entry<byte[], byte[]>> cursor = connection.hScan(raw(RedisKey.REDIS_TKONE_GROUP), options);
+                try {
+                    while (cursor.hasNext()) {
+                        batch.add(cursor.next());
+                        if (batch.size() >= SCAN_COUNT) {
+                            count += this.drainBatch(batch);
+                            batch.clear();
+                        }
+                    }
+                } finally {
+                    closeCursor(cursor);
+                }
+                return count + this.drainBatch(batch);
+            });
+            this.legacyDrained = true;
+            logger.info("legacy redis token migrated：{}", migrated);
+        } catch (Exception e) {
+            // 迁移失败时，读取时仍兼容旧的存储方式
+            logger.error("migrate legacy redis token error：{{}}", e);
+        }
+    }
+
+    /**
+     * 迁移一批旧的redisToken，使用另一个连接以管道方式批量写入
+     *
+     * @param batch 旧hash中的一批数据
+     * @return 迁移的数量（不包含已过期的）
+     */
+    private int drainBatch(List<Map.Entry<byte[], byte[]>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int[] count = {0};
+        this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<byte[], byte[]> entry : batch) {
+                RedisToken redisToken = this.deserializeHashValue(entry.getValue());
+                long expire = redisToken == null ? 0 : this.remainingSeconds(now, redisToken);
+                if (expire > 0) {
+                    this.writeToken(connection, new String(entry.getKey(), StandardCharsets.UTF_8), redisToken,
+                        expire);
+                    count[0]++;
+                }
+                connection.hDel(raw(RedisKey.REDIS_TKONE_GROUP), entry.getKey());
+            }
+            return null;
+        });
+        return count[0];
+    }
+
+    /**
+     * 旧的存储方式下，遍历hash删除用户账号下的所有redisToken
+     *
+     * @param account 用户账号
+     * @return 删除的数量
+     */
+    private int revokeAllInHash(String account) {
+        List<String> tokens = new ArrayList<>();
+        String cursor = RedisTokenPage.FINISHED_CURSOR;
+        do {
+            RedisTokenPage page = this.scan(cursor, SCAN_COUNT);
+            page.getTokens().forEach((token, redisToken) -> {
+                if (redisToken != null && account.equals(redisToken.getAccount())) {
+                    tokens.add(token);
+                }
+            });
+            cursor = page.getCursor();
+        } while (!RedisTokenPage.FINISHED_CURSOR.equals(cursor));
+        this.deleteAll(tokens);
+        return tokens.size();
+    }
+
+    /**
+     * 将旧的存储方式中读取的redisToken迁移为新的存储方式，过期时间为剩余的有效时间
+     *
+     * @param token      token
+     * @param redisToken redisToken
+     * @return 是否迁移（已过期的不迁移）
+     */
+    private boolean migrate(String token, RedisToken redisToken) {
+        long expire = this.remainingSeconds(LocalDateTime.now(), redisToken);
+        if (expire > 0) {
+            this.putWithExpire(token, redisToken, expire);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 以管道方式写入redisToken及用户账号索引
+     *
+     * @param token      token
+     * @param redisToken redisToken
+     * @param expire     过期时间（秒）
+     */
+    private void putWithExpire(String token, RedisToken redisToken, long expire) {
+        this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            this.writeToken(connection, token, redisToken, expire);
+            return null;
+        });
+    }
+
+    /**
+     * 写入redisToken及用户账号索引，用户账号索引的过期时间总是不小于其中所有token的过期时间
+     *
+     * @param connection redis连接
+     * @param token      token
+     * @param redisToken redisToken
+     * @param expire     过期时间（秒）
+     */
+    private void writeToken(RedisConnection connection, String token, RedisToken redisToken, long expire) {
+        connection.setEx(raw(tokenKey(token)), expire, this.serialize(redisToken));
+        if (redisToken.getAccount() != null) {
+            byte[] accountKey = raw(accountKey(redisToken.getAccount()));
+            connection.sAdd(accountKey, raw(token));
+            connection.expire(accountKey, Math.max(expire, this.redisTokenExpire));
+        }
+    }
+
+    /**
+     * 由最后一次访问时间计算剩余的有效时间
+     *
+     * @param now        当前时间
+     * @param redisToken redisToken
+     * @return 剩余的有效时间（秒）
+     */
+    private long remainingSeconds(LocalDateTime now, RedisToken redisToken) {
+        if (redisToken.getLastAccessTime() == null) {
+            return 0;
+        }
+        return Duration.between(now, redisToken.getLastAccessTime().plusSeconds(this.redisTokenExpire)).getSeconds();
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(RedisToken redisToken) {
+        return ((RedisSerializer<RedisToken>) this.redisTemplate.getValueSerializer()).serialize(redisToken);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisToken deserialize(byte[] bytes) {
+        return ((RedisSerializer<RedisToken>) this.redisTemplate.getValueSerializer()).deserialize(bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeHashValue(RedisToken redisToken) {
+        return ((RedisSerializer<RedisToken>) this.redisTemplate.getHashValueSerializer()).serialize(redisToken);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisToken deserializeHashValue(byte[] bytes) {
+        return ((RedisSerializer<RedisToken>) this.redisTemplate.getHashValueSerializer()).deserialize(bytes);
+    }
+
+    private boolean isHashMode() {
+        return STORE_MODE_HASH.equalsIgnoreCase(this.storeMode);
+    }
+
+    private static Jedis nativeJedis(RedisConnection connection) {
+        Object nativeConnection = connection.getNativeConnection();
+        if (!(nativeConnection instanceof Jedis)) {
+            throw new BusinessException("当前redis连接不支持分批扫描");
+        }
+        return (Jedis) nativeConnection;
+    }
+
+    private static void closeCursor(Cursor<?> cursor) {
+        try {
+            cursor.close();
+        } catch (Exception e) {
+            logger.error("close redis cursor error：{{}}", e);
+        }
+    }
+
+    /**
+     * 复制redisToken，不包含最后访问时间
+     *
+     * @param redisToken redisToken
+     * @return 不包含最后访问时间的redisToken
+     */
+    private static RedisToken withoutLastAccessTime(RedisToken redisToken) {
+        RedisToken copy = new RedisToken();
+        copy.setToken(redisToken.getToken());
+        copy.setAccount(redisToken.getAccount());
+        copy.setIp(redisToken.getIp());
+        copy.setSignTime(redisToken.getSignTime());
+        copy.setReSignTime(redisToken.getReSignTime());
+        return copy;
+    }
+
+    private static String tokenKey(String token) {
+        return TOKEN_KEY_PREFIX + token;
+    }
+
+    private static String accountKey(String account) {
+        return ACCOUNT_KEY_PREFIX + account;
+    }
+
+    private static byte[] raw(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,34 @@
+package org.thirteen.authorization.redis.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.thirteen.authorization.redis.event.TreeChangedEvent;
+import org.thirteen.authorization.redis.service.TreeChangeService;
+import org.thirteen.authorization.redis.support.ChangeBroadcaster;
+
+/**
+ * @author Aaron.Sun
+ * @description 树结构数据变更通知服务接口实现类，由树结构数据变更事件广播发布
+ * @date Created in 11:55 2026/10/18
+ * @modified By
+ */
+@Service
+public class TreeChangeServiceImpl implements TreeChangeService {
+
+    private final ChangeBroadcaster<TreeChangedEvent> treeChangeBroadcaster;
+
+    @Autowired
+    public TreeChangeServiceImpl(ChangeBroadcaster<TreeChangedEvent> treeChangeBroadcaster) {
+        this.treeChangeBroadcaster = treeChangeBroadcaster;
+    }
+
+    /**
+     * 发布树结构数据变更事件（存在事务时，在事务提交后发布），本节点及其他节点均会收到
+     *
+     * @param treeName 树结构名称（实体类名）
+     */
+    @Override
+    public void publish(String treeName) {
+        this.treeChangeBroadcaster.publish(new TreeChangedEvent(treeName));
+    }
+}
@@ -0,0 +1,80 @@
+package org.thirteen.authorization.redis.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.thirteen.authorization.common.utils.JsonUtil;
+import org.thirteen.authorization.redis.event.BaseChangedEvent;
+import org.thirteen.authorization.service.support.TransactionCallbacks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * @author Aaron.Sun
+ * @description 变更事件广播，每种事件对应一个redis频道
+ * 本节点直接发布应用事件，同时通过redis频道通知其他节点，其他节点收到消息后再发布应用事件
+ * @date Created in 16:35 2026/10/18
+ * @modified By
+ */
+public class ChangeBroadcaster<E extends BaseChangedEvent> implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeBroadcaster.class);
+
+    /** 当前节点ID，用于忽略本节点发出的消息 */
+    private final String nodeId = UUID.randomUUID().toString();
+    /** redis频道 */
+    private final String channel;
+    /** 事件类型 */
+    private final Class<E> eventType;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ChangeBroadcaster(String channel, Class<E> eventType, StringRedisTemplate stringRedisTemplate,
+                             ApplicationEventPublisher applicationEventPublisher) {
+        this.channel = channel;
+        this.eventType = eventType;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    /**
+     * 发布变更事件（存在事务时，在事务提交后发布），本节点及其他节点均会收到
+     *
+     * @param event 变更事件，发布时设置节点ID及变更时间
+     */
+    public void publish(E event) {
+        TransactionCallbacks.afterCommit(() -> {
+            event.setNodeId(this.nodeId);
+            event.setChangeTime(System.currentTimeMillis());
+            this.applicationEventPublisher.publishEvent(event);
+            try {
+                this.stringRedisTemplate.convertAndSend(this.channel, JsonUtil.toJsonString(event));
+            } catch (Exception e) {
+                logger.error("publish {} to channel {} error：{{}}", this.eventType.getSimpleName(), this.channel, e);
+            }
+        });
+    }
+
+    /**
+     * 接收其他节点发出的变更消息
+     *
+     * @param message 消息
+     * @param pattern 频道
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        E event = JsonUtil.parseObject(new String(message.getBody(), StandardCharsets.UTF_8), this.eventType);
+        if (event != null && !this.nodeId.equals(event.getNodeId())) {
+            this.applicationEventPublisher.publishEvent(event);
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+}
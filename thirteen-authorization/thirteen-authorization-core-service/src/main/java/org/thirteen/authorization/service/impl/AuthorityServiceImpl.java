@@ -1,12 +1,17 @@
 package org.thirteen.authorization.service.impl;
 
 import org.springframework.stereotype.Service;
-import org.thirteen.authorization.exceptions.BusinessException;
 import org.thirteen.authorization.model.vo.SysPermissionVO;
+import org.thirteen.authorization.model.vo.SysRoleVO;
 import org.thirteen.authorization.model.vo.SysUserVO;
+import org.thirteen.authorization.redis.authority.AuthoritySnapshot;
+import org.thirteen.authorization.redis.service.AuthoritySnapshotService;
 import org.thirteen.authorization.service.AuthorityService;
 import org.thirteen.authorization.service.SysUserService;
 
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * @author Aaron.Sun
  * @description 权限校验服务接口实现类
@@ -17,9 +22,11 @@ import org.thirteen.authorization.service.SysUserService;
 public class AuthorityServiceImpl implements AuthorityService {
 
     private final SysUserService sysUserService;
+    private final AuthoritySnapshotService authoritySnapshotService;
 
-    public AuthorityServiceImpl(SysUserService sysUserService) {
+    public AuthorityServiceImpl(SysUserService sysUserService, AuthoritySnapshotService authoritySnapshotService) {
         this.sysUserService = sysUserService;
+        this.authoritySnapshotService = authoritySnapshotService;
     }
 
     /**
@@ -30,22 +37,28 @@ public class AuthorityServiceImpl implements AuthorityService {
      */
     @Override
     public boolean validate(String url) {
-        boolean flag = false;
-        // 获取用户详细信息（包含用户角色、用户权限等信息）
-        SysUserVO user = this.sysUserService.findDetail();
-        try {
-            if (user != null && user.getPermissions() != null && user.getPermissions().size() > 0) {
-                for (SysPermissionVO perm : user.getPermissions()) {
-                    // 判断请求路径是否与权限中的路径匹配
-                    if (url.equals(perm.getUrl())) {
-                        flag = true;
-                        break;
-                    }
-                }
-            }
-        } catch (Exception e) {
-            throw new BusinessException("鉴权失败", e.getCause());
+        // 获取用户权限快照（包含用户角色编码、用户权限路径），快照不存在时才查询用户详细信息
+        AuthoritySnapshot snapshot = this.authoritySnapshotService
+            .get(this.sysUserService.getCurrentAccount(), this::createSnapshot);
+        return snapshot.hasPermission(url);
+    }
+
+    /**
+     * 由用户详细信息构建用户权限快照
+     *
+     * @param account 用户账号
+     * @return 用户权限快照
+     */
+    private AuthoritySnapshot createSnapshot(String account) {
+        SysUserVO user = this.sysUserService.findDetailByAccount(account);
+        Set<String> roleCodes = null;
+        Set<String> urls = null;
+        if (user.getRoles() != null) {
+            roleCodes = user.getRoles().stream().map(SysRoleVO::getCode).collect(Collectors.toSet());
+        }
+        if (user.getPermissions() != null) {
+            urls = user.getPermissions().stream().map(SysPermissionVO::getUrl).collect(Collectors.toSet());
         }
-        return flag;
+        return new AuthoritySnapshot(account, roleCodes, urls);
     }
 }
@@ -7,6 +7,7 @@ import org.thirteen.authorization.dozer.DozerMapper;
 import org.thirteen.authorization.exceptions.BusinessException;
 import org.thirteen.authorization.model.po.SysApplicationPO;
 import org.thirteen.authorization.model.vo.SysApplicationVO;
+import org.thirteen.authorization.redis.service.TreeChangeService;
 import org.thirteen.authorization.repository.SysApplicationRepository;
 import org.thirteen.authorization.repository.SysRoleApplicationRepository;
 import org.thirteen.authorization.service.SysApplicationService;
@@ -14,6 +15,8 @@ import org.thirteen.authorization.service.impl.base.BaseTreeSortServiceImpl;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * @author Aaron.Sun
@@ -30,8 +33,9 @@ public class SysApplicationServiceImpl
 
     @Autowired
     public SysApplicationServiceImpl(SysApplicationRepository baseRepository, DozerMapper dozerMapper,
-                                     EntityManager em, SysRoleApplicationRepository sysRoleApplicationRepository) {
-        super(baseRepository, dozerMapper, em);
+                                     EntityManager em, TreeChangeService treeChangeService,
+                                     SysRoleApplicationRepository sysRoleApplicationRepository) {
+        super(baseRepository, dozerMapper, em, treeChangeService);
         this.sysRoleApplicationRepository = sysRoleApplicationRepository;
     }
 
@@ -47,9 +51,8 @@ public class SysApplicationServiceImpl
     @Override
     public void deleteInBatch(List<String> ids) {
         // 删除所有应用关联
-        ids.forEach(id -> {
-            this.baseRepository.findById(id).ifPresent(item -> this.removeAllRelation(item.getCode()));
-        });
+        this.removeAllRelation(this.findAllPoByIds(ids).stream()
+            .map(SysApplicationPO::getCode).filter(Objects::nonNull).distinct().collect(Collectors.toList()));
         super.deleteInBatch(ids);
     }
 
@@ -65,4 +68,19 @@ public class SysApplicationServiceImpl
             throw new BusinessException("删除所有应用关联失败", e.getCause());
         }
     }
+
+    /**
+     * 批量删除所有应用关联（方法名remove开头，与delete区分开，沿用调用方法的事务）
+     *
+     * @param applicationCodes 应用编码集合
+     */
+    private void removeAllRelation(List<String> applicationCodes) throws BusinessException {
+        try {
+            for (List<String> chunk : partition(applicationCodes)) {
+                this.sysRoleApplicationRepository.deleteByApplicationCodeIn(chunk);
+            }
+        } catch (Exception e) {
+            throw new BusinessException("删除所有应用关联失败", e.getCause());
+        }
+    }
 }
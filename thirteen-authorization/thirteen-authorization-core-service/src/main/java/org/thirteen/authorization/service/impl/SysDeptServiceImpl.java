@@ -8,6 +8,8 @@ import org.thirteen.authorization.exceptions.BusinessException;
 import org.thirteen.authorization.model.po.SysDeptPO;
 import org.thirteen.authorization.model.po.SysDeptRolePO;
 import org.thirteen.authorization.model.vo.SysDeptVO;
+import org.thirteen.authorization.redis.service.AuthoritySnapshotService;
+import org.thirteen.authorization.redis.service.TreeChangeService;
 import org.thirteen.authorization.repository.SysDeptRepository;
 import org.thirteen.authorization.repository.SysDeptRoleRepository;
 import org.thirteen.authorization.service.SysDeptService;
@@ -16,6 +18,7 @@ import org.thirteen.authorization.service.impl.base.BaseTreeSortServiceImpl;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -30,13 +33,16 @@ public class SysDeptServiceImpl extends BaseTreeSortServiceImpl<SysDeptVO, SysDe
 
     private final SysDeptRoleRepository sysDeptRoleRepository;
     private final SysRoleService sysRoleService;
+    private final AuthoritySnapshotService authoritySnapshotService;
 
     @Autowired
     public SysDeptServiceImpl(SysDeptRepository baseRepository, DozerMapper dozerMapper, EntityManager em,
-                              SysDeptRoleRepository sysDeptRoleRepository, SysRoleService sysRoleService) {
-        super(baseRepository, dozerMapper, em);
+                              TreeChangeService treeChangeService, SysDeptRoleRepository sysDeptRoleRepository,
+                              SysRoleService sysRoleService, AuthoritySnapshotService authoritySnapshotService) {
+        super(baseRepository, dozerMapper, em, treeChangeService);
         this.sysDeptRoleRepository = sysDeptRoleRepository;
         this.sysRoleService = sysRoleService;
+        this.authoritySnapshotService = authoritySnapshotService;
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -55,6 +61,15 @@ public class SysDeptServiceImpl extends BaseTreeSortServiceImpl<SysDeptVO, SysDe
         // 添加部门角色关联
         this.addDeptRole(model);
         super.update(model);
+        // 部门角色变更会影响部门下的所有用户，失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void updateAll(List<SysDeptVO> models) {
+        // 每个部门都需要更新部门角色关联，逐条更新
+        models.forEach(this::update);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -63,16 +78,19 @@ public class SysDeptServiceImpl extends BaseTreeSortServiceImpl<SysDeptVO, SysDe
         // 删除所有部门关联
         this.baseRepository.findById(id).ifPresent(item -> this.removeAllRelation(item.getCode()));
         super.delete(id);
+        // 失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
     }
 
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void deleteInBatch(List<String> ids) {
         // 删除所有部门关联
-        ids.forEach(id -> {
-            this.baseRepository.findById(id).ifPresent(item -> this.removeAllRelation(item.getCode()));
-        });
+        this.removeAllRelation(this.findAllPoByIds(ids).stream()
+            .map(SysDeptPO::getCode).filter(Objects::nonNull).distinct().collect(Collectors.toList()));
         super.deleteInBatch(ids);
+        // 失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
     }
 
     @Override
@@ -115,6 +133,21 @@ public class SysDeptServiceImpl extends BaseTreeSortServiceImpl<SysDeptVO, SysDe
         }
     }
 
+    /**
+     * 批量删除所有部门关联（方法名remove开头，与delete区分开，沿用调用方法的事务）
+     *
+     * @param deptCodes 部门编码集合
+     */
+    private void removeAllRelation(List<String> deptCodes) throws BusinessException {
+        try {
+            for (List<String> chunk : partition(deptCodes)) {
+                this.sysDeptRoleRepository.deleteByDeptCodeIn(chunk);
+            }
+        } catch (Exception e) {
+            throw new BusinessException("删除所有部门关联失败", e.getCause());
+        }
+    }
+
     /**
      * 由部门信息级联查询部门下的角色信息，并返回（方法名query开头，与find区分开）
      *
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import org.thirteen.authorization.dozer.DozerMapper;
 import org.thirteen.authorization.model.po.SysGroupPO;
 import org.thirteen.authorization.model.vo.SysGroupVO;
+import org.thirteen.authorization.redis.service.TreeChangeService;
 import org.thirteen.authorization.repository.SysGroupRepository;
 import org.thirteen.authorization.service.SysGroupService;
 import org.thirteen.authorization.service.impl.base.BaseTreeSortServiceImpl;
@@ -23,8 +24,9 @@ public class SysGroupServiceImpl
     implements SysGroupService {
 
     @Autowired
-    public SysGroupServiceImpl(SysGroupRepository baseRepository, DozerMapper dozerMapper, EntityManager em) {
-        super(baseRepository, dozerMapper, em);
+    public SysGroupServiceImpl(SysGroupRepository baseRepository, DozerMapper dozerMapper, EntityManager em,
+                               TreeChangeService treeChangeService) {
+        super(baseRepository, dozerMapper, em, treeChangeService);
     }
 
 }
@@ -7,6 +7,8 @@ import org.thirteen.authorization.dozer.DozerMapper;
 import org.thirteen.authorization.exceptions.BusinessException;
 import org.thirteen.authorization.model.po.SysPermissionPO;
 import org.thirteen.authorization.model.vo.SysPermissionVO;
+import org.thirteen.authorization.redis.service.AuthoritySnapshotService;
+import org.thirteen.authorization.redis.service.PermissionChangeService;
 import org.thirteen.authorization.repository.SysPermissionRepository;
 import org.thirteen.authorization.repository.SysRolePermissionRepository;
 import org.thirteen.authorization.service.SysPermissionService;
@@ -14,6 +16,8 @@ import org.thirteen.authorization.service.impl.base.BaseRecordServiceImpl;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * @author Aaron.Sun
@@ -27,12 +31,54 @@ public class SysPermissionServiceImpl
     implements SysPermissionService {
 
     private final SysRolePermissionRepository sysRolePermissionRepository;
+    private final AuthoritySnapshotService authoritySnapshotService;
+    private final PermissionChangeService permissionChangeService;
 
     @Autowired
     public SysPermissionServiceImpl(SysPermissionRepository baseRepository, DozerMapper dozerMapper, EntityManager em,
-                                    SysRolePermissionRepository sysRolePermissionRepository) {
+                                    SysRolePermissionRepository sysRolePermissionRepository,
+                                    AuthoritySnapshotService authoritySnapshotService,
+                                    PermissionChangeService permissionChangeService) {
         super(baseRepository, dozerMapper, em);
         this.sysRolePermissionRepository = sysRolePermissionRepository;
+        this.authoritySnapshotService = authoritySnapshotService;
+        this.permissionChangeService = permissionChangeService;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void insert(SysPermissionVO model) {
+        super.insert(model);
+        // 通知权限变更，重建拦截器的权限路由表
+        this.permissionChangeService.publish();
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void insertAll(List<SysPermissionVO> models) {
+        super.insertAll(models);
+        // 通知权限变更，重建拦截器的权限路由表
+        this.permissionChangeService.publish();
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void update(SysPermissionVO model) {
+        super.update(model);
+        // 权限路径可能变更或被禁用，失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
+        // 通知权限变更，重建拦截器的权限路由表
+        this.permissionChangeService.publish();
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void updateAll(List<SysPermissionVO> models) {
+        super.updateAll(models);
+        // 权限路径可能变更或被禁用，失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
+        // 通知权限变更，重建拦截器的权限路由表
+        this.permissionChangeService.publish();
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -41,16 +87,23 @@ public class SysPermissionServiceImpl
         // 删除所有权限关联
         this.baseRepository.findById(id).ifPresent(item -> this.removeAllRelation(item.getCode()));
         super.delete(id);
+        // 失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
+        // 通知权限变更，重建拦截器的权限路由表
+        this.permissionChangeService.publish();
     }
 
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void deleteInBatch(List<String> ids) {
         // 删除所有权限关联
-        ids.forEach(id -> {
-            this.baseRepository.findById(id).ifPresent(item -> this.removeAllRelation(item.getCode()));
-        });
+        this.removeAllRelation(this.findAllPoByIds(ids).stream()
+            .map(SysPermissionPO::getCode).filter(Objects::nonNull).distinct().collect(Collectors.toList()));
         super.deleteInBatch(ids);
+        // 失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
+        // 通知权限变更，重建拦截器的权限路由表
+        this.permissionChangeService.publish();
     }
 
     /**
@@ -65,4 +118,19 @@ public class SysPermissionServiceImpl
             throw new BusinessException("删除所有权限关联失败", e.getCause());
         }
     }
+
+    /**
+     * 批量删除所有权限关联（方法名remove开头，与delete区分开，沿用调用方法的事务）
+     *
+     * @param permissionCodes 权限编码集合
+     */
+    private void removeAllRelation(List<String> permissionCodes) throws BusinessException {
+        try {
+            for (List<String> chunk : partition(permissionCodes)) {
+                this.sysRolePermissionRepository.deleteByPermissionCodeIn(chunk);
+            }
+        } catch (Exception e) {
+            throw new BusinessException("删除所有权限关联失败", e.getCause());
+        }
+    }
 }
@@ -12,15 +12,21 @@ import org.thirteen.authorization.model.params.base.SortParam;
 import org.thirteen.authorization.model.po.SysRoleApplicationPO;
 import org.thirteen.authorization.model.po.SysRolePO;
 import org.thirteen.authorization.model.po.SysRolePermissionPO;
+import org.thirteen.authorization.model.vo.SysApplicationVO;
+import org.thirteen.authorization.model.vo.SysPermissionVO;
 import org.thirteen.authorization.model.vo.SysRoleVO;
+import org.thirteen.authorization.redis.service.AuthoritySnapshotService;
 import org.thirteen.authorization.repository.*;
 import org.thirteen.authorization.service.SysApplicationService;
 import org.thirteen.authorization.service.SysPermissionService;
 import org.thirteen.authorization.service.SysRoleService;
 import org.thirteen.authorization.service.impl.base.BaseRecordServiceImpl;
+import org.thirteen.authorization.service.support.AsyncQueryExecutor;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static org.thirteen.authorization.constant.GlobalConstants.ACTIVE_ON;
@@ -44,6 +50,8 @@ public class SysRoleServiceImpl extends BaseRecordServiceImpl<SysRoleVO, SysRole
     private final SysRoleApplicationRepository sysRoleApplicationRepository;
     private final SysRolePermissionRepository sysRolePermissionRepository;
     private final SysUserRoleRepository sysUserRoleRepository;
+    private final AuthoritySnapshotService authoritySnapshotService;
+    private final AsyncQueryExecutor asyncQueryExecutor;
 
     @Autowired
     public SysRoleServiceImpl(SysRoleRepository baseRepository, DozerMapper dozerMapper, EntityManager em,
@@ -52,7 +60,9 @@ public class SysRoleServiceImpl extends BaseRecordServiceImpl<SysRoleVO, SysRole
                               SysDeptRoleRepository sysDeptRoleRepository,
                               SysRoleApplicationRepository sysRoleApplicationRepository,
                               SysRolePermissionRepository sysRolePermissionRepository,
-                              SysUserRoleRepository sysUserRoleRepository) {
+                              SysUserRoleRepository sysUserRoleRepository,
+                              AuthoritySnapshotService authoritySnapshotService,
+                              AsyncQueryExecutor asyncQueryExecutor) {
         super(baseRepository, dozerMapper, em);
         this.sysApplicationService = sysApplicationService;
         this.sysPermissionService = sysPermissionService;
@@ -60,6 +70,24 @@ public class SysRoleServiceImpl extends BaseRecordServiceImpl<SysRoleVO, SysRole
         this.sysRoleApplicationRepository = sysRoleApplicationRepository;
         this.sysRolePermissionRepository = sysRolePermissionRepository;
         this.sysUserRoleRepository = sysUserRoleRepository;
+        this.authoritySnapshotService = authoritySnapshotService;
+        this.asyncQueryExecutor = asyncQueryExecutor;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void update(SysRoleVO model) {
+        super.update(model);
+        // 角色可能被启用或禁用，失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void updateAll(List<SysRoleVO> models) {
+        super.updateAll(models);
+        // 角色可能被启用或禁用，失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -68,16 +96,19 @@ public class SysRoleServiceImpl extends BaseRecordServiceImpl<SysRoleVO, SysRole
         // 删除所有角色的关联
         this.baseRepository.findById(id).ifPresent(item -> this.removeAllRelation(item.getCode()));
         super.delete(id);
+        // 失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
     }
 
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void deleteInBatch(List<String> ids) {
         // 删除所有角色的关联
-        ids.forEach(id -> {
-            this.baseRepository.findById(id).ifPresent(item -> this.removeAllRelation(item.getCode()));
-        });
+        this.removeAllRelation(this.findAllPoByIds(ids).stream()
+            .map(SysRolePO::getCode).filter(Objects::nonNull).distinct().collect(Collectors.toList()));
         super.deleteInBatch(ids);
+        // 失效所有用户的权限快照
+        this.authoritySnapshotService.evictAll();
     }
 
     /**
@@ -97,48 +128,89 @@ public class SysRoleServiceImpl extends BaseRecordServiceImpl<SysRoleVO, SysRole
         }
     }
 
+    /**
+     * 批量删除所有角色的关联（方法名remove开头，与delete区分开，沿用调用方法的事务）
+     *
+     * @param roleCodes 角色编码集合
+     */
+    private void removeAllRelation(List<String> roleCodes) throws BusinessException {
+        try {
+            for (List<String> chunk : partition(roleCodes)) {
+                this.sysDeptRoleRepository.deleteByRoleCodeIn(chunk);
+                this.sysRoleApplicationRepository.deleteByRoleCodeIn(chunk);
+                this.sysRolePermissionRepository.deleteByRoleCodeIn(chunk);
+                this.sysUserRoleRepository.deleteByRoleCodeIn(chunk);
+            }
+        } catch (Exception e) {
+            throw new BusinessException("删除所有角色关联失败", e.getCause());
+        }
+    }
+
     @Override
     public SysRoleVO findDetailById(String id) {
         // 获取角色信息
         SysRoleVO model = this.findById(id);
         // 判断角色信息是否为null
         if (model != null) {
-            BaseParam applicationParam = BaseParam.of().add(SortParam.asc(SORT_FIELD));
-            BaseParam permissionParam = BaseParam.of().add(SortParam.asc(CODE_FIELD));
-            // 判断角色是否为超级管理员
-            if (!ADMIN_CODE.equals(model.getCode())) {
-                // 获取角色应用关联
-                List<SysRoleApplicationPO> roleApplications = this.sysRoleApplicationRepository
-                    .findAllByRoleCode(model.getCode());
-                // 如果角色应用关联不为空，添加查询条件
-                if (roleApplications != null && roleApplications.size() > 0) {
-                    List<String> applicationCodes = roleApplications.stream()
-                        .map(SysRoleApplicationPO::getApplicationCode).collect(Collectors.toList());
-                    applicationParam.add(CriteriaParam.in(CODE_FIELD, applicationCodes).and());
-                    // 获取角色下的应用信息
-                    model.setApplications(this.sysApplicationService.findAllByParam(applicationParam).getList());
-                }
-                // 获取角色权限关联
-                List<SysRolePermissionPO> rolePermissions = this.sysRolePermissionRepository
-                    .findAllByRoleCode(model.getCode());
-                // 如果角色应用关联不为空，添加查询条件
-                if (rolePermissions != null && rolePermissions.size() > 0) {
-                    List<String> permissionCodes = rolePermissions.stream()
-                        .map(SysRolePermissionPO::getPermissionCode).collect(Collectors.toList());
-                    permissionParam.add(CriteriaParam.in(CODE_FIELD, permissionCodes).and());
-                    // 获取角色下的权限信息
-                    model.setPermissions(this.sysPermissionService.findAllByParam(permissionParam).getList());
-                }
-            } else {
-                // 获取角色下的应用信息
-                model.setApplications(this.sysApplicationService.findAllByParam(applicationParam).getList());
-                // 获取角色下的权限信息
-                model.setPermissions(this.sysPermissionService.findAllByParam(permissionParam).getList());
-            }
+            // 角色下的应用信息与权限信息互不依赖，并行查询
+            CompletableFuture<List<SysApplicationVO>> applications = this.asyncQueryExecutor
+                .supply(() -> this.findRoleApplications(model.getCode()));
+            CompletableFuture<List<SysPermissionVO>> permissions = this.asyncQueryExecutor
+                .supply(() -> this.findRolePermissions(model.getCode()));
+            model.setApplications(AsyncQueryExecutor.join(applications));
+            model.setPermissions(AsyncQueryExecutor.join(permissions));
         }
         return model;
     }
 
+    /**
+     * 获取角色下的应用信息（超级管理员拥有所有应用）
+     *
+     * @param roleCode 角色编码
+     * @return 应用信息集合，角色未关联应用时返回null
+     */
+    private List<SysApplicationVO> findRoleApplications(String roleCode) {
+        BaseParam applicationParam = BaseParam.of().add(SortParam.asc(SORT_FIELD));
+        // 判断角色是否为超级管理员
+        if (!ADMIN_CODE.equals(roleCode)) {
+            // 获取角色应用关联
+            List<SysRoleApplicationPO> roleApplications = this.sysRoleApplicationRepository
+                .findAllByRoleCode(roleCode);
+            // 如果角色应用关联为空，不再查询
+            if (roleApplications == null || roleApplications.size() <= 0) {
+                return null;
+            }
+            List<String> applicationCodes = roleApplications.stream()
+                .map(SysRoleApplicationPO::getApplicationCode).collect(Collectors.toList());
+            applicationParam.add(CriteriaParam.in(CODE_FIELD, applicationCodes).and());
+        }
+        return this.sysApplicationService.findAllByParam(applicationParam).getList();
+    }
+
+    /**
+     * 获取角色下的权限信息（超级管理员拥有所有权限）
+     *
+     * @param roleCode 角色编码
+     * @return 权限信息集合，角色未关联权限时返回null
+     */
+    private List<SysPermissionVO> findRolePermissions(String roleCode) {
+        BaseParam permissionParam = BaseParam.of().add(SortParam.asc(CODE_FIELD));
+        // 判断角色是否为超级管理员
+        if (!ADMIN_CODE.equals(roleCode)) {
+            // 获取角色权限关联
+            List<SysRolePermissionPO> rolePermissions = this.sysRolePermissionRepository
+                .findAllByRoleCode(roleCode);
+            // 如果角色权限关联为空，不再查询
+            if (rolePermissions == null || rolePermissions.size() <= 0) {
+                return null;
+            }
+            List<String> permissionCodes = rolePermissions.stream()
+                .map(SysRolePermissionPO::getPermissionCode).collect(Collectors.toList());
+            permissionParam.add(CriteriaParam.in(CODE_FIELD, permissionCodes).and());
+        }
+        return this.sysPermissionService.findAllByParam(permissionParam).getList();
+    }
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void authorize(SysRoleVO model) {
@@ -161,6 +233,8 @@ public class SysRoleServiceImpl extends BaseRecordServiceImpl<SysRoleVO, SysRole
                 // 添加新关联
                 this.addRoleApplication(model);
                 this.addRolePermission(model);
+                // 角色权限变更，失效所有用户的权限快照
+                this.authoritySnapshotService.evictAll();
             }
         } else {
             throw new BusinessException("角色不存在或已删除！");
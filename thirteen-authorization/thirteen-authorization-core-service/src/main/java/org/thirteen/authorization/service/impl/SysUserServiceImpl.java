@@ -18,20 +18,27 @@ import org.thirteen.authorization.model.params.base.CriteriaParam;
 import org.thirteen.authorization.model.params.base.SortParam;
 import org.thirteen.authorization.model.po.*;
 import org.thirteen.authorization.model.po.base.BaseRecordPO;
+import org.thirteen.authorization.model.vo.SysApplicationVO;
+import org.thirteen.authorization.model.vo.SysDeptVO;
+import org.thirteen.authorization.model.vo.SysPermissionVO;
 import org.thirteen.authorization.model.vo.SysRoleVO;
 import org.thirteen.authorization.model.vo.SysUserVO;
+import org.thirteen.authorization.redis.service.AuthoritySnapshotService;
+import org.thirteen.authorization.redis.service.RedisTokenService;
 import org.thirteen.authorization.repository.*;
 import org.thirteen.authorization.service.SysApplicationService;
+import org.thirteen.authorization.service.SysDeptService;
 import org.thirteen.authorization.service.SysPermissionService;
 import org.thirteen.authorization.service.SysRoleService;
 import org.thirteen.authorization.service.SysUserService;
 import org.thirteen.authorization.service.impl.base.BaseRecordServiceImpl;
+import org.thirteen.authorization.service.support.AsyncQueryExecutor;
+import org.thirteen.authorization.service.support.TransactionCallbacks;
 
 import javax.persistence.EntityManager;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static org.thirteen.authorization.constant.GlobalConstants.ACTIVE_ON;
@@ -48,28 +55,39 @@ public class SysUserServiceImpl extends BaseRecordServiceImpl<SysUserVO, SysUser
     implements SysUserService {
 
     private final SysUserRoleRepository sysUserRoleRepository;
-    private final SysDeptRoleRepository sysDeptRoleRepository;
     private final SysRoleService sysRoleService;
     private final SysApplicationService sysApplicationService;
+    private final SysDeptService sysDeptService;
     private final SysPermissionService sysPermissionService;
-    private final SysRoleApplicationRepository sysRoleApplicationRepository;
-    private final SysRolePermissionRepository sysRolePermissionRepository;
+    private final SysRoleRepository sysRoleRepository;
+    private final SysApplicationRepository sysApplicationRepository;
+    private final SysPermissionRepository sysPermissionRepository;
+    private final AuthoritySnapshotService authoritySnapshotService;
+    private final RedisTokenService redisTokenService;
+    private final AsyncQueryExecutor asyncQueryExecutor;
 
     @Autowired
     public SysUserServiceImpl(SysUserRepository baseRepository, DozerMapper dozerMapper, EntityManager em,
-                              SysUserRoleRepository sysUserRoleRepository, SysDeptRoleRepository sysDeptRoleRepository,
+                              SysUserRoleRepository sysUserRoleRepository,
                               SysRoleService sysRoleService, SysApplicationService sysApplicationService,
+                              SysDeptService sysDeptService,
                               SysPermissionService sysPermissionService,
-                              SysRoleApplicationRepository sysRoleApplicationRepository,
-                              SysRolePermissionRepository sysRolePermissionRepository) {
+                              SysRoleRepository sysRoleRepository, SysApplicationRepository sysApplicationRepository,
+                              SysPermissionRepository sysPermissionRepository,
+                              AuthoritySnapshotService authoritySnapshotService,
+                              RedisTokenService redisTokenService, AsyncQueryExecutor asyncQueryExecutor) {
         super(baseRepository, dozerMapper, em);
         this.sysUserRoleRepository = sysUserRoleRepository;
-        this.sysDeptRoleRepository = sysDeptRoleRepository;
         this.sysRoleService = sysRoleService;
         this.sysApplicationService = sysApplicationService;
+        this.sysDeptService = sysDeptService;
         this.sysPermissionService = sysPermissionService;
-        this.sysRoleApplicationRepository = sysRoleApplicationRepository;
-        this.sysRolePermissionRepository = sysRolePermissionRepository;
+        this.sysRoleRepository = sysRoleRepository;
+        this.sysApplicationRepository = sysApplicationRepository;
+        this.sysPermissionRepository = sysPermissionRepository;
+        this.authoritySnapshotService = authoritySnapshotService;
+        this.redisTokenService = redisTokenService;
+        this.asyncQueryExecutor = asyncQueryExecutor;
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -97,22 +115,49 @@ public class SysUserServiceImpl extends BaseRecordServiceImpl<SysUserVO, SysUser
         // 添加用户角色关联
         this.addUserRole(model);
         super.update(model);
+        // 用户角色或所属部门可能变更，失效用户的权限快照
+        this.evictSnapshot(model.getAccount());
+        // 用户被禁用时，强制下线
+        if (model.getActive() != null && !ACTIVE_ON.equals(model.getActive())) {
+            String account = StringUtils.isNotEmpty(model.getAccount()) ? model.getAccount() :
+                this.baseRepository.findById(model.getId()).map(SysUserPO::getAccount).orElse(null);
+            this.revokeTokens(account);
+        }
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void updateAll(List<SysUserVO> models) {
+        // 每个用户都需要更新用户角色关联、失效权限快照，逐条更新
+        models.forEach(this::update);
     }
 
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void delete(String id) {
         // 删除所有用户关联
-        this.baseRepository.findById(id).ifPresent(item -> this.removeAllRelation(item.getAccount()));
+        this.baseRepository.findById(id).ifPresent(item -> {
+            this.removeAllRelation(item.getAccount());
+            // 失效用户的权限快照
+            this.evictSnapshot(item.getAccount());
+            // 强制下线
+            this.revokeTokens(item.getAccount());
+        });
         super.delete(id);
     }
 
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void deleteInBatch(List<String> ids) {
+        List<String> accounts = this.findAllPoByIds(ids).stream()
+            .map(SysUserPO::getAccount).filter(Objects::nonNull).distinct().collect(Collectors.toList());
         // 删除所有用户关联
-        ids.forEach(id -> {
-            this.baseRepository.findById(id).ifPresent(item -> this.removeAllRelation(item.getAccount()));
+        this.removeAllRelation(accounts);
+        accounts.forEach(account -> {
+            // 失效用户的权限快照
+            this.evictSnapshot(account);
+            // 强制下线
+            this.revokeTokens(account);
         });
         super.deleteInBatch(ids);
     }
@@ -146,7 +191,7 @@ public class SysUserServiceImpl extends BaseRecordServiceImpl<SysUserVO, SysUser
     public boolean checkAccount(String account) {
         BaseParam param = BaseParam.of().add(CriteriaParam.equal(DEL_FLAG_FIELD, BaseRecordPO.DEL_FLAG_NORMAL).and())
             .add(CriteriaParam.equal("account", account).and());
-        return this.baseRepository.findOne(this.createSpecification(param.getCriterias())).isPresent();
+        return this.exists(param.getCriterias());
     }
 
     /**
@@ -221,64 +266,70 @@ public class SysUserServiceImpl extends BaseRecordServiceImpl<SysUserVO, SysUser
         if (!ACTIVE_ON.equals(user.getActive())) {
             throw new LockedAccountException();
         }
-        // 角色ID去重临时变量
-        Set<String> roleCodeSet = new HashSet<>();
-        // 获取所有与用户关联的角色编码
-        roleCodeSet.addAll(this.sysUserRoleRepository.findAllByAccount(account).stream()
-            .map(SysUserRolePO::getRoleCode).collect(Collectors.toList()));
-        // 获取所有与用户所属部门关联的角色编码
-        roleCodeSet.addAll(this.sysDeptRoleRepository.findAllByDeptCode(user.getDept().getCode()).stream()
-            .map(SysDeptRolePO::getRoleCode).collect(Collectors.toList()));
-        // 判断角色ID集合大小是否大于0
-        if (roleCodeSet.size() > 0) {
-            BaseParam roleParam = BaseParam.of()
-                .add(CriteriaParam.equal(ACTIVE_FIELD, ACTIVE_ON).and())
-                .add(CriteriaParam.in(CODE_FIELD, new ArrayList<>(roleCodeSet)).and());
-            // 添加用户及用户所属部门拥有的启用角色
-            user.setRoles(this.sysRoleService.findAllByParam(roleParam).getList());
-            // 判断用户下启用的角色是否为空
-            if (user.getRoles() != null && user.getRoles().size() > 0) {
-                List<String> roleCodes = user.getRoles().stream()
-                    .map(SysRoleVO::getCode).collect(Collectors.toList());
-                BaseParam applicationParam = BaseParam.of()
-                    .add(CriteriaParam.equal(ACTIVE_FIELD, ACTIVE_ON).and())
-                    .add(SortParam.asc(SORT_FIELD));
-                BaseParam permissionParam = BaseParam.of().add(CriteriaParam.equal(ACTIVE_FIELD, ACTIVE_ON).and());
-                // 验证用户是否拥有超级管理员角色
-                if (!checkAdmin(user)) {
-                    // 获取角色应用关联
-                    List<SysRoleApplicationPO> roleApplications = this.sysRoleApplicationRepository
-                        .findAllByRoleCodeIn(roleCodes);
-                    // 如果角色应用关联不为空，添加查询条件
-                    if (roleApplications != null && roleApplications.size() > 0) {
-                        List<String> applicationCodes = roleApplications.stream()
-                            .map(SysRoleApplicationPO::getApplicationCode).collect(Collectors.toList());
-                        applicationParam.add(CriteriaParam.in(CODE_FIELD, applicationCodes).and());
-                        // 获取角色下的启用应用信息
-                        user.setApplications(this.sysApplicationService.findAllByParam(applicationParam).getList());
-                    }
-                    // 获取角色权限关联
-                    List<SysRolePermissionPO> rolePermissions = this.sysRolePermissionRepository
-                        .findAllByRoleCodeIn(roleCodes);
-                    // 如果角色应用关联不为空，添加查询条件
-                    if (rolePermissions != null && rolePermissions.size() > 0) {
-                        List<String> permissionCodes = rolePermissions.stream()
-                            .map(SysRolePermissionPO::getPermissionCode).collect(Collectors.toList());
-                        permissionParam.add(CriteriaParam.in(CODE_FIELD, permissionCodes).and());
-                        // 获取角色下的启用权限信息
-                        user.setPermissions(this.sysPermissionService.findAllByParam(permissionParam).getList());
-                    }
-                } else {
-                    // 获取角色下的启用应用信息
-                    user.setApplications(this.sysApplicationService.findAllByParam(applicationParam).getList());
-                    // 获取角色下的启用权限信息
-                    user.setPermissions(this.sysPermissionService.findAllByParam(permissionParam).getList());
-                }
-            }
+        // 由部门树快照获取用户所属部门的完整信息（不查询数据库），部门不存在或已删除时不获取部门角色
+        SysDeptVO dept = user.getDept() == null || user.getDept().getCode() == null ? null
+            : this.sysDeptService.findByCode(user.getDept().getCode());
+        String deptCode = null;
+        if (dept != null) {
+            user.setDept(dept);
+            deptCode = dept.getCode();
+        }
+        // 一次查询获取用户及用户所属部门拥有的启用角色
+        user.setRoles(this.dozerMapper.mapList(
+            this.sysRoleRepository.findAllByUserAndDept(account, deptCode, ACTIVE_ON), SysRoleVO.class));
+        // 判断用户下启用的角色是否为空
+        if (user.getRoles().size() > 0) {
+            // 验证用户是否拥有超级管理员角色
+            boolean admin = checkAdmin(user);
+            List<String> roleCodes = user.getRoles().stream()
+                .map(SysRoleVO::getCode).collect(Collectors.toList());
+            // 应用信息与权限信息互不依赖，并行查询
+            CompletableFuture<List<SysApplicationVO>> applications = this.asyncQueryExecutor
+                .supply(() -> this.findActiveApplications(roleCodes, admin));
+            CompletableFuture<List<SysPermissionVO>> permissions = this.asyncQueryExecutor
+                .supply(() -> this.findActivePermissions(roleCodes, admin));
+            user.setApplications(AsyncQueryExecutor.join(applications));
+            user.setPermissions(AsyncQueryExecutor.join(permissions));
         }
         return user;
     }
 
+    /**
+     * 获取角色下的启用应用信息
+     *
+     * @param roleCodes 角色编码集合
+     * @param admin     是否为超级管理员（超级管理员拥有所有启用应用）
+     * @return 启用应用信息集合
+     */
+    private List<SysApplicationVO> findActiveApplications(List<String> roleCodes, boolean admin) {
+        if (admin) {
+            BaseParam applicationParam = BaseParam.of()
+                .add(CriteriaParam.equal(ACTIVE_FIELD, ACTIVE_ON).and())
+                .add(SortParam.asc(SORT_FIELD));
+            return this.sysApplicationService.findAllByParam(applicationParam).getList();
+        }
+        // 由角色编码直接关联获取角色下的启用应用信息
+        return this.dozerMapper.mapList(
+            this.sysApplicationRepository.findAllByRoleCodeIn(roleCodes, ACTIVE_ON), SysApplicationVO.class);
+    }
+
+    /**
+     * 获取角色下的启用权限信息
+     *
+     * @param roleCodes 角色编码集合
+     * @param admin     是否为超级管理员（超级管理员拥有所有启用权限）
+     * @return 启用权限信息集合
+     */
+    private List<SysPermissionVO> findActivePermissions(List<String> roleCodes, boolean admin) {
+        if (admin) {
+            BaseParam permissionParam = BaseParam.of().add(CriteriaParam.equal(ACTIVE_FIELD, ACTIVE_ON).and());
+            return this.sysPermissionService.findAllByParam(permissionParam).getList();
+        }
+        // 由角色编码直接关联获取角色下的启用权限信息
+        return this.dozerMapper.mapList(
+            this.sysPermissionRepository.findAllByRoleCodeIn(roleCodes, ACTIVE_ON), SysPermissionVO.class);
+    }
+
     /**
      * 添加用户角色关联（方法名add开头，与insert区分开，沿用调用方法的事务）
      *
@@ -312,6 +363,45 @@ public class SysUserServiceImpl extends BaseRecordServiceImpl<SysUserVO, SysUser
         }
     }
 
+    /**
+     * 批量删除所有用户关联（方法名remove开头，与delete区分开，沿用调用方法的事务）
+     *
+     * @param accounts 用户账号集合
+     */
+    private void removeAllRelation(List<String> accounts) throws BusinessException {
+        try {
+            for (List<String> chunk : partition(accounts)) {
+                this.sysUserRoleRepository.deleteByAccountIn(chunk);
+            }
+        } catch (Exception e) {
+            throw new BusinessException("删除所有用户关联失败", e.getCause());
+        }
+    }
+
+    /**
+     * 失效用户的权限快照，账号为空时无法确定用户，失效所有用户的权限快照
+     *
+     * @param account 用户账号
+     */
+    private void evictSnapshot(String account) {
+        if (StringUtils.isEmpty(account)) {
+            this.authoritySnapshotService.evictAll();
+        } else {
+            this.authoritySnapshotService.evict(account);
+        }
+    }
+
+    /**
+     * 删除用户账号下的所有redisToken，即强制下线（存在事务时，在事务提交后执行）
+     *
+     * @param account 用户账号
+     */
+    private void revokeTokens(String account) {
+        if (StringUtils.isNotEmpty(account)) {
+            TransactionCallbacks.afterCommit(() -> this.redisTokenService.revokeAll(account));
+        }
+    }
+
     /**
      * 由用户信息级联查询用户下的角色信息，并返回（方法名query开头，与find区分开）
      *
@@ -9,10 +9,14 @@ import org.thirteen.authorization.model.po.base.BaseDeletePO;
 import org.thirteen.authorization.model.vo.base.BaseDeleteVO;
 import org.thirteen.authorization.repository.base.BaseRepository;
 import org.thirteen.authorization.service.base.BaseDeleteService;
+import org.thirteen.authorization.service.support.base.CriteriaCompiler.CompiledCriteria;
 import org.thirteen.authorization.web.PagerResult;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.thirteen.authorization.service.support.base.ModelInformation.DEL_FLAG_FIELD;
 import static org.thirteen.authorization.service.support.base.ModelInformation.ID_FIELD;
@@ -63,10 +67,8 @@ public abstract class BaseDeleteServiceImpl<VO extends BaseDeleteVO, PO extends
     @Override
     public void deleteInBatch(List<String> ids) {
         Assert.notEmpty(ids, ID_COLLECTION_MUST_NOT_BE_EMPTY);
-        String sql = this.getDeleteInBatchSql(String.format("UPDATE %s SET %s = %s WHERE",
-            this.poInformation.getClassName(), DEL_FLAG_FIELD, BaseDeletePO.DEL_FLAG_DELETE), ids);
-        // 创建查询对象，并执行更新语句
-        this.createQuery(sql, ids).executeUpdate();
+        this.executeInChunks(String.format("UPDATE %s SET %s = %s WHERE %s IN (:%s)", this.poInformation.getClassName(),
+            DEL_FLAG_FIELD, BaseDeletePO.DEL_FLAG_DELETE, ID_FIELD, IDS_PARAM), ids);
     }
 
     @Override
@@ -101,22 +103,80 @@ public abstract class BaseDeleteServiceImpl<VO extends BaseDeleteVO, PO extends
         return super.findAllByParam(param.add(CriteriaParam.equal(DEL_FLAG_FIELD, BaseDeletePO.DEL_FLAG_NORMAL).and()));
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAllByParam(BaseParam param, Consumer<VO> consumer) {
+        super.streamAllByParam(param.add(CriteriaParam.equal(DEL_FLAG_FIELD, BaseDeletePO.DEL_FLAG_NORMAL).and()),
+            consumer);
+    }
+
+    /**
+     * 除查询时追加的删除标记条件外没有其他条件时，视为无条件，估算总记录数时取表统计信息（包含已删除的记录）
+     *
+     * @param criteria  编译后的条件
+     * @param criterias 搜索条件参数集合
+     * @return 是否视为无条件
+     */
+    @Override
+    protected boolean isUnconditional(CompiledCriteria criteria, List<CriteriaParam> criterias) {
+        if (super.isUnconditional(criteria, criterias)) {
+            return true;
+        }
+        List<CriteriaParam> others = new ArrayList<>(criterias.size());
+        for (CriteriaParam item : criterias) {
+            if (!isNormalDelFlag(item)) {
+                others.add(item);
+            }
+        }
+        return others.size() < criterias.size() && this.criteriaCompiler.compile(others).getWhere().isEmpty();
+    }
+
+    /**
+     * 判断是否为删除标记为正常的条件（以AND连接且不包含条件组）
+     *
+     * @param criteria 搜索条件参数
+     * @return 是否为删除标记为正常的条件
+     */
+    private static boolean isNormalDelFlag(CriteriaParam criteria) {
+        return DEL_FLAG_FIELD.equals(criteria.getFeild()) && CriteriaParam.EQUAL.equals(criteria.getOperator())
+            && BaseDeletePO.DEL_FLAG_NORMAL.equals(criteria.getValue())
+            && !CriteriaParam.OR.equals(criteria.getRelation())
+            && (criteria.getCriterias() == null || criteria.getCriterias().isEmpty());
+    }
+
     /**
-     * 获取更新语句（不包含值为null的字段）
+     * 设置更新语句的参数（不包含值为null的字段）
      *
      * @param model  PO对象
      * @param params 参数
-     * @return 更新语句
+     * @return 非null字段的位图
      */
     @Override
-    protected String getUpdateSql(PO model, List<Object> params) {
+    protected BitSet setUpdateParams(PO model, List<Object> params) {
         // 不可更新删除标记字段
         model.setDelFlag(null);
-        // 获取sql
-        String sql = super.getUpdateSql(model, params);
+        BitSet mask = super.setUpdateParams(model, params);
         // 追加筛选条件参数
         params.add(BaseDeletePO.DEL_FLAG_NORMAL);
+        return mask;
+    }
+
+    /**
+     * 生成更新语句
+     *
+     * @param mask      非null字段的位图
+     * @param nativeSql 是否为原生sql
+     * @return 更新语句
+     */
+    @Override
+    protected String createUpdateSql(BitSet mask, boolean nativeSql) {
         // 追加筛选条件
-        return sql + String.format(" AND %s = ?%d", DEL_FLAG_FIELD, params.size());
+        return super.createUpdateSql(mask, nativeSql) + String.format(" AND %s = %s",
+            this.getUpdateName(DEL_FLAG_FIELD, nativeSql), getUpdatePlaceholder(super.getUpdateParamCount(mask) + 1, nativeSql));
+    }
+
+    @Override
+    protected int getUpdateParamCount(BitSet mask) {
+        return super.getUpdateParamCount(mask) + 1;
     }
 }
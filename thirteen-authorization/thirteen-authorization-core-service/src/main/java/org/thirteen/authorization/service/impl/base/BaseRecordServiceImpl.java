@@ -16,8 +16,7 @@ import org.thirteen.authorization.web.PagerResult;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 import static org.thirteen.authorization.constant.GlobalConstants.ACTIVE_ON;
 import static org.thirteen.authorization.service.support.base.ModelInformation.*;
@@ -55,14 +54,14 @@ public abstract class BaseRecordServiceImpl<VO extends BaseRecordVO, PO extends
     @Override
     public void insertAll(List<VO> models) {
         Assert.notEmpty(models, VO_COLLECTION_MUST_NOT_BE_EMPTY);
-        // 存储已存在的编码
-        List<String> existsCodes = new ArrayList<>();
+        // 存储重复的编码
+        Set<String> codes = new LinkedHashSet<>();
+        Set<String> duplicateCodes = new LinkedHashSet<>();
         String createBy = "";
         LocalDateTime now = LocalDateTime.now();
         models.forEach(item -> {
-            // 验证应用编码是否存在（不包含已逻辑删除的应用编码）
-            if (this.checkCode(item.getCode())) {
-                existsCodes.add(item.getCode());
+            if (!codes.add(item.getCode())) {
+                duplicateCodes.add(item.getCode());
             }
             if (StringUtil.isEmpty(item.getActive())) {
                 item.setActive(ACTIVE_ON);
@@ -70,6 +69,11 @@ public abstract class BaseRecordServiceImpl<VO extends BaseRecordVO, PO extends
             item.setCreateBy(createBy);
             item.setCreateTime(now);
         });
+        if (duplicateCodes.size() > 0) {
+            throw new BusinessException(String.format("编码重复，%s", StringUtils.join(duplicateCodes.toArray(), ",")));
+        }
+        // 一次验证所有编码是否存在（不包含已逻辑删除的编码）
+        List<String> existsCodes = this.findExistsCodes(codes);
         if (existsCodes.size() > 0) {
             throw new BusinessException(String.format("编码已存在，%s", StringUtils.join(existsCodes.toArray(), ",")));
         }
@@ -106,7 +110,28 @@ public abstract class BaseRecordServiceImpl<VO extends BaseRecordVO, PO extends
     public boolean checkCode(String code) {
         BaseParam param = BaseParam.of().add(CriteriaParam.equal(DEL_FLAG_FIELD, BaseRecordPO.DEL_FLAG_NORMAL).and())
             .add(CriteriaParam.equal(CODE_FIELD, code).and());
-        return this.baseRepository.findOne(this.createSpecification(param.getCriterias())).isPresent();
+        return this.exists(param.getCriterias());
+    }
+
+    /**
+     * 获取已存在的编码（不包含已逻辑删除的编码），按补齐到2的幂的批次使用IN查询
+     *
+     * @param codes 编码集合
+     * @return 已存在的编码
+     */
+    protected List<String> findExistsCodes(Collection<String> codes) {
+        List<String> existsCodes = new ArrayList<>();
+        String sql = String.format("SELECT %s FROM %s WHERE %s = ?1 AND %s IN ?2", CODE_FIELD,
+            this.poInformation.getClassName(), DEL_FLAG_FIELD, CODE_FIELD);
+        for (List<String> chunk : partition(codes)) {
+            List<Object> params = new ArrayList<>();
+            params.add(BaseRecordPO.DEL_FLAG_NORMAL);
+            params.add(chunk);
+            for (Object code : this.createQuery(sql, params).getResultList()) {
+                existsCodes.add((String) code);
+            }
+        }
+        return existsCodes;
     }
 
     @Override
@@ -122,20 +147,37 @@ public abstract class BaseRecordServiceImpl<VO extends BaseRecordVO, PO extends
     }
 
     /**
-     * 获取更新语句（不包含值为null的字段）
+     * 设置更新语句的参数（不包含值为null的字段）
      *
      * @param model  PO对象
      * @param params 参数
-     * @return 更新语句
+     * @return 非null字段的位图
      */
     @Override
-    protected String getUpdateSql(PO model, List<Object> params) {
+    protected BitSet setUpdateParams(PO model, List<Object> params) {
         model.setVersion(model.getVersion() + 1);
-        // 获取sql
-        String sql = super.getUpdateSql(model, params);
+        BitSet mask = super.setUpdateParams(model, params);
         // 追加筛选条件参数
         params.add(model.getVersion() - 1);
+        return mask;
+    }
+
+    /**
+     * 生成更新语句
+     *
+     * @param mask      非null字段的位图
+     * @param nativeSql 是否为原生sql
+     * @return 更新语句
+     */
+    @Override
+    protected String createUpdateSql(BitSet mask, boolean nativeSql) {
         // 追加筛选条件
-        return sql + String.format(" AND %s = ?%d", VERSION_FIELD, params.size());
+        return super.createUpdateSql(mask, nativeSql) + String.format(" AND %s = %s",
+            this.getUpdateName(VERSION_FIELD, nativeSql), getUpdatePlaceholder(super.getUpdateParamCount(mask) + 1, nativeSql));
+    }
+
+    @Override
+    protected int getUpdateParamCount(BitSet mask) {
+        return super.getUpdateParamCount(mask) + 1;
     }
 }
@@ -2,38 +2,52 @@ package org.thirteen.authorization.service.impl.base;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 import org.thirteen.authorization.common.utils.JsonUtil;
 import org.thirteen.authorization.common.utils.StringUtil;
 import org.thirteen.authorization.dozer.DozerMapper;
+import org.thirteen.authorization.exceptions.BusinessException;
 import org.thirteen.authorization.exceptions.ParamErrorException;
 import org.thirteen.authorization.model.params.base.BaseParam;
 import org.thirteen.authorization.model.params.base.CriteriaParam;
+import org.thirteen.authorization.model.params.base.PageParam;
 import org.thirteen.authorization.model.params.base.SortParam;
 import org.thirteen.authorization.model.po.base.BasePO;
 import org.thirteen.authorization.model.vo.base.BaseVO;
 import org.thirteen.authorization.repository.base.BaseRepository;
 import org.thirteen.authorization.service.base.BaseService;
+import org.thirteen.authorization.service.support.base.CountCache;
+import org.thirteen.authorization.service.support.base.CriteriaCompiler;
+import org.thirteen.authorization.service.support.base.CriteriaCompiler.CompiledCriteria;
 import org.thirteen.authorization.service.support.base.ModelInformation;
+import org.thirteen.authorization.service.support.base.SeekCursor;
+import org.thirteen.authorization.service.support.base.UpdateSqlCache;
 import org.thirteen.authorization.web.PagerResult;
 
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
 import javax.persistence.Query;
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import javax.persistence.TypedQuery;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.thirteen.authorization.service.support.base.ModelInformation.ID_FIELD;
 
@@ -54,13 +68,17 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
     protected static final String PARAM_MUST_NOT_BE_EMPTY = "查询参数对象不能为null";
     protected static final String CRITERIA_COLLECTION_MUST_NOT_BE_EMPTY = "条件集合不能为空";
     /**
-     * 每层条件的最大值
+     * IN条件每批的最大参数个数
      */
-    private static final Integer MAX_CRITERIA_SIZE = 10;
+    protected static final int IN_CHUNK_SIZE = 512;
     /**
-     * 条件最大深度
+     * IN条件每批的最小参数个数
      */
-    private static final Integer MAX_DEEP = 5;
+    private static final int MIN_IN_CHUNK_SIZE = 8;
+    /**
+     * 批量删除语句中主键集合的参数名
+     */
+    protected static final String IDS_PARAM = "ids";
     /**
      * baseRepository
      */
@@ -81,6 +99,48 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
      * PO对象信息
      */
     protected ModelInformation<PO> poInformation;
+    /**
+     * 更新语句缓存
+     */
+    protected UpdateSqlCache updateSqlCache;
+    /**
+     * 批量更新的原生语句缓存
+     */
+    protected UpdateSqlCache nativeUpdateSqlCache;
+    /**
+     * 批量写入时每批的数量，与hibernate的jdbc批量大小一致
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    protected Integer batchSize;
+    /**
+     * 总记录数缓存，用于估算总记录数
+     */
+    protected CountCache countCache;
+    /**
+     * 条件编译器
+     */
+    protected CriteriaCompiler criteriaCompiler;
+    /**
+     * 估算总记录数时缓存的有效期（毫秒）
+     */
+    @Value("${count-cache-ttl:60000}")
+    protected Long countCacheTtl;
+    /**
+     * 流式查询时语句的fetchSize，默认为Integer.MIN_VALUE，即MySQL驱动逐行流式读取结果集，
+     * 仅作用于流式查询的语句，不需要开启连接池全局的useCursorFetch（服务端预编译语句）
+     */
+    @Value("${stream-fetch-size:" + Integer.MIN_VALUE + "}")
+    protected Integer streamFetchSize;
+    /**
+     * 流式查询的最大记录数，超出的记录不读取
+     */
+    @Value("${stream-max-rows:100000}")
+    protected Integer streamMaxRows;
+    /**
+     * 流式查询的最长时间（毫秒），超时后中止查询并释放连接，避免读取缓慢的客户端长时间占用连接
+     */
+    @Value("${stream-timeout:300000}")
+    protected Long streamTimeout;
 
     @SuppressWarnings("unchecked")
     public BaseServiceImpl(R baseRepository, DozerMapper dozerMapper, EntityManager em) {
@@ -91,6 +151,10 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
         Type[] params = ((ParameterizedType) genType).getActualTypeArguments();
         this.voInformation = new ModelInformation<>((Class<VO>) params[0]);
         this.poInformation = new ModelInformation<>((Class<PO>) params[1]);
+        this.updateSqlCache = UpdateSqlCache.of(this.getClass().getName());
+        this.nativeUpdateSqlCache = UpdateSqlCache.of(this.getClass().getName() + ".native");
+        this.countCache = new CountCache();
+        this.criteriaCompiler = CriteriaCompiler.of(this.getClass().getName(), this.poInformation);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -106,7 +170,22 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
     public void insertAll(List<VO> models) {
         Assert.notEmpty(models, VO_COLLECTION_MUST_NOT_BE_EMPTY);
         models.forEach(item -> item.setId(null));
-        this.baseRepository.saveAll(this.converToPo(models));
+        List<PO> pos = this.converToPo(models);
+        // 分批写入，每批写入后清理持久化上下文，避免大批量数据占用内存
+        int start = 0;
+        for (int i = 0; i < pos.size(); i++) {
+            try {
+                this.em.persist(pos.get(i));
+            } catch (PersistenceException e) {
+                throw new BusinessException(String.format("批量新增失败，下标：%d", i), e);
+            }
+            if ((i + 1) % this.batchSize == 0) {
+                this.flushInserts(start, i + 1);
+                this.em.clear();
+                start = i + 1;
+            }
+        }
+        this.flushInserts(start, pos.size());
     }
 
     @Transactional(rollbackFor = {Exception.class})
@@ -124,7 +203,22 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
     @Override
     public void updateAll(List<VO> models) {
         Assert.notEmpty(models, VO_COLLECTION_MUST_NOT_BE_EMPTY);
-        models.forEach(this::update);
+        // 按非null字段组合分组，同组使用同一条语句
+        Map<BitSet, List<List<Object>>> groups = new LinkedHashMap<>();
+        for (VO model : models) {
+            Assert.notNull(model.getId(), ID_MUST_NOT_BE_NULL);
+            List<Object> params = new ArrayList<>();
+            BitSet mask = this.setUpdateParams(this.converToPo(model), params);
+            groups.computeIfAbsent(mask, key -> new ArrayList<>()).add(params);
+        }
+        // 先将持久化上下文中的变更写入数据库，再使用JDBC批量更新
+        this.em.flush();
+        this.em.unwrap(Session.class).doWork(connection -> {
+            for (Map.Entry<BitSet, List<List<Object>>> group : groups.entrySet()) {
+                String sql = this.nativeUpdateSqlCache.get(group.getKey(), mask -> this.createUpdateSql(mask, true));
+                this.executeBatch(connection, sql, group.getValue(), group.getKey().cardinality());
+            }
+        });
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -138,10 +232,8 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
     @Override
     public void deleteInBatch(List<String> ids) {
         Assert.notEmpty(ids, ID_COLLECTION_MUST_NOT_BE_EMPTY);
-        String sql = this.getDeleteInBatchSql(String.format("DELETE FROM %s WHERE", this.poInformation.getClassName()),
-            ids);
-        // 创建查询对象，并执行更新语句
-        this.createQuery(sql, ids).executeUpdate();
+        this.executeInChunks(String.format("DELETE FROM %s WHERE %s IN (:%s)",
+            this.poInformation.getClassName(), ID_FIELD, IDS_PARAM), ids);
     }
 
     @Override
@@ -165,57 +257,299 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
     public VO findOneByParam(BaseParam param) {
         Assert.notNull(param, PARAM_MUST_NOT_BE_EMPTY);
         Assert.notEmpty(param.getCriterias(), CRITERIA_COLLECTION_MUST_NOT_BE_EMPTY);
-        Optional<PO> optional = this.baseRepository.findOne(this.createSpecification(param.getCriterias()));
-        return optional.map(this::converToVo).orElse(null);
+        List<PO> models = this.createCompiledQuery(this.criteriaCompiler.compile(param.getCriterias()), null)
+            .setMaxResults(2).getResultList();
+        if (models.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, models.size());
+        }
+        return models.isEmpty() ? null : this.converToVo(models.get(0));
     }
 
     @Override
     public PagerResult<VO> findAllByParam(BaseParam param) {
         Assert.notNull(param, PARAM_MUST_NOT_BE_EMPTY);
-        logger.debug(String.format("查询参数：%s", JsonUtil.toJsonString(param)));
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("查询参数：%s", JsonUtil.toJsonString(param)));
+        }
         PagerResult<VO> result;
-        Specification<PO> specification = null;
         Sort sort = null;
-        // 判断条件参数是否为空
-        if (param.getCriterias() != null && param.getCriterias().size() > 0) {
-            specification = this.createSpecification(param.getCriterias());
-        }
+        // 所有查询方式均使用编译后的条件，条件语义一致
+        CompiledCriteria criteria = this.criteriaCompiler.compile(param.getCriterias());
         // 判断排序参数是否为空
         if (param.getSorts() != null && param.getSorts().size() > 0) {
             sort = this.createSort(param.getSorts());
         }
+        // 游标分页
+        if (param.getPage() != null && param.getPage().getCursor() != null) {
+            return this.findAllBySeek(criteria, sort, param);
+        }
         // 判断分页参数是否为空
         if (param.getPage() != null) {
-            PageRequest pageRequest;
-            Page<PO> page;
-            if (sort != null) {
-                pageRequest = PageRequest.of(param.getPage().getPageNum(), param.getPage().getPageSize(), sort);
-            } else {
-                pageRequest = PageRequest.of(param.getPage().getPageNum(), param.getPage().getPageSize());
+            String countMode = this.getCountMode(param.getPage(), PageParam.COUNT_EXACT);
+            // 不精确统计时，不使用Page查询，避免执行count语句
+            if (!PageParam.COUNT_EXACT.equals(countMode)) {
+                return this.findAllBySlice(criteria, sort, param, countMode);
             }
-            if (specification != null) {
-                page = this.baseRepository.findAll(specification, pageRequest);
-            } else {
-                page = this.baseRepository.findAll(pageRequest);
-            }
-            result = PagerResult.of(page.getTotalElements(), this.converToVo(page.getContent()));
+            PageRequest pageRequest = PageRequest.of(param.getPage().getPageNum(), param.getPage().getPageSize());
+            List<PO> content = this.createCompiledQuery(criteria, sort).setFirstResult((int) pageRequest.getOffset())
+                .setMaxResults(pageRequest.getPageSize()).getResultList();
+            // 第一页或最后一页可由结果数量确定总记录数时，不执行count语句
+            Page<PO> page = PageableExecutionUtils.getPage(content, pageRequest, () -> this.countCompiled(criteria));
+            result = PagerResult.of(page.getTotalElements(), this.converToVo(page.getContent()))
+                .hasNext(page.hasNext()).countMode(countMode);
         } else {
-            if (specification != null && sort != null) {
-                return PagerResult.of(this.converToVo(this.baseRepository.findAll(specification, sort)));
-            }
-            if (specification != null) {
-                return PagerResult.of(this.converToVo(this.baseRepository.findAll(specification)));
-            }
-            if (sort != null) {
-                return PagerResult.of(this.converToVo(this.baseRepository.findAll(sort)));
-            }
-            result = PagerResult.of(this.converToVo(this.baseRepository.findAll()));
+            result = PagerResult.of(this.converToVo(this.createCompiledQuery(criteria, sort).getResultList()));
         }
         return result;
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAllByParam(BaseParam param, Consumer<VO> consumer) {
+        Assert.notNull(param, PARAM_MUST_NOT_BE_EMPTY);
+        Assert.notNull(consumer, "consumer must not be null!");
+        Sort sort = null;
+        if (param.getSorts() != null && param.getSorts().size() > 0) {
+            sort = this.createSort(param.getSorts());
+        }
+        // 逐行流式读取期间连接不能执行其他语句，PO没有关联关系，转换时不会触发其他查询
+        TypedQuery<PO> query = this.createCompiledQuery(this.criteriaCompiler.compile(param.getCriterias()), sort)
+            .setMaxResults(this.streamMaxRows)
+            .setHint(QueryHints.HINT_FETCH_SIZE, this.streamFetchSize)
+            .setHint(QueryHints.HINT_READONLY, true);
+        long deadline = System.currentTimeMillis() + this.streamTimeout;
+        try (Stream<PO> stream = query.getResultStream()) {
+            stream.forEach(model -> {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new BusinessException(String.format("流式查询超过%d毫秒，已中止", this.streamTimeout));
+                }
+                VO vo = this.converToVo(model);
+                // 转换后立即脱离持久化上下文，避免持久化上下文随记录数增长
+                this.em.detach(model);
+                consumer.accept(vo);
+            });
+        }
+    }
+
     // ================================= 以下方法为类方法 ================================= //
 
+    /**
+     * 页码分页查询，不使用Page查询，多查询一条记录判断是否有下一页，按统计方式统计总记录数
+     *
+     * @param criteria  编译后的条件
+     * @param sort      排序对象，可为null
+     * @param param     查询参数
+     * @param countMode 统计方式
+     * @return 分页结果
+     */
+    protected PagerResult<VO> findAllBySlice(CompiledCriteria criteria, Sort sort, BaseParam param,
+                                             String countMode) {
+        PageParam page = param.getPage();
+        this.checkPageSize(page);
+        if (page.getPageNum() == null || page.getPageNum() < 0) {
+            throw new ParamErrorException("页码不能小于0");
+        }
+        List<PO> models = this.createCompiledQuery(criteria, sort)
+            .setFirstResult(page.getPageNum() * page.getPageSize()).setMaxResults(page.getPageSize() + 1)
+            .getResultList();
+        boolean hasNext = models.size() > page.getPageSize();
+        if (hasNext) {
+            models = models.subList(0, page.getPageSize());
+        }
+        long total = this.count(criteria, param.getCriterias(), countMode);
+        return PagerResult.of(total, this.converToVo(models)).hasNext(hasNext).countMode(countMode);
+    }
+
+    /**
+     * 游标分页查询，由上一页最后一条记录的排序字段值生成条件，查询耗时与页码深度无关
+     * 默认不统计总记录数（总记录数为-1）
+     *
+     * @param criteria 编译后的条件
+     * @param sort     排序对象，可为null（按主键排序）
+     * @param param    查询参数
+     * @return 分页结果，nextCursor为下一页的游标
+     */
+    protected PagerResult<VO> findAllBySeek(CompiledCriteria criteria, Sort sort, BaseParam param) {
+        PageParam page = param.getPage();
+        this.checkPageSize(page);
+        String countMode = this.getCountMode(page, PageParam.COUNT_NONE);
+        SeekCursor<PO> cursor = SeekCursor.of(this.poInformation, sort != null ? sort : Sort.unsorted());
+        CompiledCriteria seekCriteria = criteria;
+        if (StringUtil.isNotEmpty(page.getCursor())) {
+            List<Object> params = new ArrayList<>();
+            String predicate = cursor.toJpql(CriteriaCompiler.ALIAS, cursor.decode(page.getCursor()),
+                criteria.getParams().size(), params);
+            seekCriteria = criteria.and(predicate, params);
+        }
+        // 多查询一条，用于判断是否有下一页
+        List<PO> models = this.createCompiledQuery(seekCriteria, cursor.getSort())
+            .setMaxResults(page.getPageSize() + 1).getResultList();
+        boolean hasNext = models.size() > page.getPageSize();
+        if (hasNext) {
+            models = models.subList(0, page.getPageSize());
+        }
+        long total = this.count(criteria, param.getCriterias(), countMode);
+        return PagerResult.of(total, this.converToVo(models)).hasNext(hasNext).countMode(countMode)
+            .nextCursor(hasNext ? cursor.encode(models.get(models.size() - 1)) : null);
+    }
+
+    /**
+     * 由编译后的条件创建查询对象
+     *
+     * @param criteria 编译后的条件
+     * @param sort     排序对象，可为null
+     * @return 查询对象
+     */
+    protected TypedQuery<PO> createCompiledQuery(CompiledCriteria criteria, Sort sort) {
+        String sql = String.format("SELECT %s FROM %s %s%s%s", CriteriaCompiler.ALIAS,
+            this.poInformation.getClassName(), CriteriaCompiler.ALIAS, criteria.getWhere(),
+            this.criteriaCompiler.orderBy(sort));
+        TypedQuery<PO> query = this.em.createQuery(sql, this.poInformation.getRealClass());
+        this.setParams(query, criteria.getParams());
+        return query;
+    }
+
+    /**
+     * 由编译后的条件统计总记录数
+     *
+     * @param criteria 编译后的条件
+     * @return 总记录数
+     */
+    protected long countCompiled(CompiledCriteria criteria) {
+        String sql = String.format("SELECT COUNT(%s) FROM %s %s%s", CriteriaCompiler.ALIAS,
+            this.poInformation.getClassName(), CriteriaCompiler.ALIAS, criteria.getWhere());
+        TypedQuery<Long> query = this.em.createQuery(sql, Long.class);
+        this.setParams(query, criteria.getParams());
+        return query.getSingleResult();
+    }
+
+    /**
+     * 由条件判断是否存在记录
+     *
+     * @param criterias 搜索条件参数集合
+     * @return 是否存在记录
+     */
+    protected boolean exists(List<CriteriaParam> criterias) {
+        CompiledCriteria criteria = this.criteriaCompiler.compile(criterias);
+        String sql = String.format("SELECT %s.%s FROM %s %s%s", CriteriaCompiler.ALIAS, ID_FIELD,
+            this.poInformation.getClassName(), CriteriaCompiler.ALIAS, criteria.getWhere());
+        Query query = this.em.createQuery(sql);
+        this.setParams(query, criteria.getParams());
+        return !query.setMaxResults(1).getResultList().isEmpty();
+    }
+
+    /**
+     * 设置位置参数
+     *
+     * @param query  查询对象
+     * @param params 参数集合
+     */
+    private void setParams(Query query, List<Object> params) {
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * 按统计方式统计总记录数
+     *
+     * @param criteria  编译后的条件
+     * @param criterias 搜索条件参数集合，用作缓存的key
+     * @param countMode 统计方式
+     * @return 总记录数，不统计时为-1
+     */
+    protected long count(CompiledCriteria criteria, List<CriteriaParam> criterias, String countMode) {
+        if (PageParam.COUNT_NONE.equals(countMode)) {
+            return -1;
+        }
+        if (PageParam.COUNT_ESTIMATED.equals(countMode)) {
+            return this.estimateCount(criteria, criterias);
+        }
+        return this.countCompiled(criteria);
+    }
+
+    /**
+     * 估算总记录数，无条件时取表统计信息，有条件或无表统计信息时取有效期内缓存的统计结果
+     *
+     * @param criteria  编译后的条件
+     * @param criterias 搜索条件参数集合，用作缓存的key
+     * @return 估算的总记录数
+     */
+    protected long estimateCount(CompiledCriteria criteria, List<CriteriaParam> criterias) {
+        boolean unconditional = this.isUnconditional(criteria, criterias);
+        if (unconditional) {
+            Long rows = this.findTableRows();
+            if (rows != null) {
+                return rows;
+            }
+        }
+        String key = unconditional ? "" : JsonUtil.toJsonString(criterias);
+        return this.countCache.get(key, this.countCacheTtl, () -> this.countCompiled(criteria));
+    }
+
+    /**
+     * 判断条件是否视为无条件，估算总记录数时无条件取表统计信息
+     *
+     * @param criteria  编译后的条件
+     * @param criterias 搜索条件参数集合
+     * @return 是否视为无条件
+     */
+    protected boolean isUnconditional(CompiledCriteria criteria, List<CriteriaParam> criterias) {
+        return criteria.getWhere().isEmpty();
+    }
+
+    /**
+     * 获取表统计信息中的记录数（InnoDB为估算值）
+     *
+     * @return 表的记录数，无表统计信息时为null
+     */
+    private Long findTableRows() {
+        if (this.poInformation.getTableName() == null) {
+            return null;
+        }
+        try {
+            List<?> result = this.em.createNativeQuery("SELECT TABLE_ROWS FROM information_schema.TABLES "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?1")
+                .setParameter(1, this.poInformation.getTableName()).getResultList();
+            if (result.isEmpty() || result.get(0) == null) {
+                return null;
+            }
+            return ((Number) result.get(0)).longValue();
+        } catch (RuntimeException e) {
+            logger.warn("获取表{}的统计信息失败：{}", this.poInformation.getTableName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 获取统计方式
+     *
+     * @param page        分页参数
+     * @param defaultMode 默认统计方式
+     * @return 统计方式
+     */
+    private String getCountMode(PageParam page, String defaultMode) {
+        if (StringUtil.isEmpty(page.getCountMode())) {
+            return defaultMode;
+        }
+        if (PageParam.COUNT_EXACT.equals(page.getCountMode()) || PageParam.COUNT_NONE.equals(page.getCountMode())
+            || PageParam.COUNT_ESTIMATED.equals(page.getCountMode())) {
+            return page.getCountMode();
+        }
+        throw new ParamErrorException("非法统计方式 " + page.getCountMode());
+    }
+
+    /**
+     * 校验每页大小
+     *
+     * @param page 分页参数
+     */
+    private void checkPageSize(PageParam page) {
+        if (page.getPageSize() == null || page.getPageSize() <= 0) {
+            throw new ParamErrorException("每页大小必须大于0");
+        }
+    }
+
     /**
      * 模型转换，PO对象转换为VO对象
      *
@@ -263,32 +597,61 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
     }
 
     /**
-     * 获取批量删除语句
+     * 分批执行主键集合条件的更新或删除语句，各批在调用方法的事务中执行
      *
-     * @param querySql 批量删除的查询语句
-     * @param ids      主键集合
-     * @return 批量删除语句
+     * @param sql 更新或删除语句，主键集合条件为 IN (:ids)
+     * @param ids 主键集合
+     * @return 影响的行数
      */
-    protected String getDeleteInBatchSql(String querySql, List<String> ids) {
-        // 动态sql
-        StringBuilder sql = new StringBuilder(querySql);
-        Iterator<String> it = ids.iterator();
-        // 条件序号
-        int i = 0;
-        // 动态拼接条件
-        while (it.hasNext()) {
-            it.next();
-            i++;
-            sql.append(String.format(" %s = ?%d", ID_FIELD, i));
-            if (it.hasNext()) {
-                sql.append(" OR");
+    protected int executeInChunks(String sql, Collection<String> ids) {
+        int count = 0;
+        for (List<String> chunk : partition(ids)) {
+            Query query = this.em.createQuery(sql);
+            query.setParameter(IDS_PARAM, chunk);
+            count += query.executeUpdate();
+        }
+        return count;
+    }
+
+    /**
+     * 由主键集合分批获取PO对象集合
+     *
+     * @param ids 主键集合
+     * @return PO对象集合
+     */
+    protected List<PO> findAllPoByIds(Collection<String> ids) {
+        List<PO> models = new ArrayList<>();
+        for (List<String> chunk : partition(ids)) {
+            this.baseRepository.findAllById(chunk).forEach(models::add);
+        }
+        return models;
+    }
+
+    /**
+     * 将IN条件的参数集合去重并分批，每批不超过{@link #IN_CHUNK_SIZE}个
+     * 每批补齐到2的幂（重复最后一个参数），使不同数量的参数复用有限的几种语句，命中查询计划缓存
+     *
+     * @param values 参数集合
+     * @param <T>    参数类型
+     * @return 分批后的参数集合
+     */
+    protected static <T> List<List<T>> partition(Collection<T> values) {
+        List<T> distinct = values.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < distinct.size(); start += IN_CHUNK_SIZE) {
+            List<T> chunk = new ArrayList<>(distinct.subList(start, Math.min(start + IN_CHUNK_SIZE, distinct.size())));
+            int size = Math.max(MIN_IN_CHUNK_SIZE, Integer.highestOneBit(chunk.size() - 1) << 1);
+            T last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < size) {
+                chunk.add(last);
             }
+            chunks.add(chunk);
         }
-        return sql.toString();
+        return chunks;
     }
 
     /**
-     * 获取更新语句（不包含值为null的字段）
+     * 获取更新语句（不包含值为null的字段），相同的非null字段组合复用缓存的语句
      *
      * @param model  PO对象
      * @param params 参数
@@ -296,30 +659,181 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
      */
     protected String getUpdateSql(PO model, List<Object> params) {
         Assert.notNull(params, "params collection must not be null!");
+        BitSet mask = this.setUpdateParams(model, params);
+        return this.updateSqlCache.get(mask, key -> this.createUpdateSql(key, false));
+    }
+
+    /**
+     * 设置更新语句的参数（不包含值为null的字段）
+     *
+     * @param model  PO对象
+     * @param params 参数
+     * @return 非null字段的位图，位下标对应可更新字段的下标
+     */
+    protected BitSet setUpdateParams(PO model, List<Object> params) {
+        List<String> fields = this.poInformation.getUpdatableFields();
+        BitSet mask = new BitSet(fields.size());
+        // while循环中，临时变量
+        Object value;
+        for (int i = 0; i < fields.size(); i++) {
+            value = this.poInformation.invokeGet(fields.get(i), model);
+            if (Objects.nonNull(value)) {
+                mask.set(i);
+                params.add(value);
+            }
+        }
+        params.add(model.getId());
+        return mask;
+    }
+
+    /**
+     * 生成更新语句
+     *
+     * @param mask      非null字段的位图
+     * @param nativeSql 是否为原生sql（原生sql使用表名、列名及?占位符，用于JDBC批量更新）
+     * @return 更新语句
+     */
+    protected String createUpdateSql(BitSet mask, boolean nativeSql) {
+        List<String> fields = this.poInformation.getUpdatableFields();
         List<String> equations = new ArrayList<>();
         // 动态sql
-        StringBuilder sql = new StringBuilder(String.format("UPDATE %s SET", this.poInformation.getClassName()));
+        StringBuilder sql = new StringBuilder(String.format("UPDATE %s SET", nativeSql
+            ? this.poInformation.getTableName() : this.poInformation.getClassName()));
         // 条件序号
         int i = 0;
-        // while循环中，临时变量
-        Object value;
         // 动态拼接条件
-        for (Field field : this.poInformation.getFields()) {
-            if (!ID_FIELD.equals(field.getName()) && !Modifier.isFinal(field.getModifiers())) {
-                value = this.poInformation.invokeGet(field.getName(), model);
-                if (Objects.nonNull(value)) {
-                    i++;
-                    equations.add(String.format(" %s = ?%d", field.getName(), i));
-                    params.add(value);
-                }
-            }
+        for (int index = mask.nextSetBit(0); index >= 0; index = mask.nextSetBit(index + 1)) {
+            i++;
+            equations.add(String.format(" %s = %s", this.getUpdateName(fields.get(index), nativeSql),
+                getUpdatePlaceholder(i, nativeSql)));
         }
         sql.append(StringUtil.join(equations, ","));
-        sql.append(String.format(" WHERE %s = ?%d", ID_FIELD, i + 1));
-        params.add(model.getId());
+        sql.append(String.format(" WHERE %s = %s", this.getUpdateName(ID_FIELD, nativeSql),
+            getUpdatePlaceholder(i + 1, nativeSql)));
         return sql.toString();
     }
 
+    /**
+     * 获取更新语句中字段的名称
+     *
+     * @param field     字段
+     * @param nativeSql 是否为原生sql
+     * @return 原生sql时为列名，否则为字段名
+     */
+    protected String getUpdateName(String field, boolean nativeSql) {
+        return nativeSql ? this.poInformation.getColumnName(field) : field;
+    }
+
+    /**
+     * 获取更新语句中参数的占位符
+     *
+     * @param index     参数序号
+     * @param nativeSql 是否为原生sql
+     * @return 原生sql时为?，否则为?序号
+     */
+    protected static String getUpdatePlaceholder(int index, boolean nativeSql) {
+        return nativeSql ? "?" : "?" + index;
+    }
+
+    /**
+     * 写入一批新增的记录，失败时由批量执行结果定位失败记录在集合中的下标
+     * 驱动将批量语句合并执行时无法定位到行，返回整批的下标范围
+     *
+     * @param start 本批第一条记录的下标
+     * @param end   本批最后一条记录的下标（不包含）
+     */
+    private void flushInserts(int start, int end) {
+        try {
+            this.em.flush();
+        } catch (PersistenceException e) {
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof BatchUpdateException)) {
+                cause = cause.getCause();
+            }
+            String rows = String.format("%d-%d", start, end - 1);
+            if (cause != null) {
+                // 驱动遇到失败后停止时，返回的结果数小于批次大小，第一条未返回结果的即为失败行
+                int[] counts = ((BatchUpdateException) cause).getUpdateCounts();
+                List<Integer> failedRows = new ArrayList<>();
+                for (int i = 0; i < end - start; i++) {
+                    if (i >= counts.length || counts[i] == Statement.EXECUTE_FAILED) {
+                        failedRows.add(start + i);
+                        if (i >= counts.length) {
+                            break;
+                        }
+                    }
+                }
+                if (!failedRows.isEmpty() && failedRows.size() < end - start) {
+                    rows = StringUtil.join(failedRows, ",");
+                }
+            }
+            throw new BusinessException(String.format("批量新增失败，下标：%s", rows), e);
+        }
+    }
+
+    /**
+     * JDBC批量执行更新语句
+     *
+     * @param connection 数据库连接
+     * @param sql        原生更新语句
+     * @param rows       每行的参数
+     * @param idIndex    参数中主键的下标
+     * @throws SQLException 执行异常
+     */
+    private void executeBatch(Connection connection, String sql, List<List<Object>> rows, int idIndex)
+        throws SQLException {
+        List<Object> unchangedIds = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int start = 0; start < rows.size(); start += this.batchSize) {
+                List<List<Object>> batch = rows.subList(start, Math.min(start + this.batchSize, rows.size()));
+                for (List<Object> row : batch) {
+                    for (int i = 0; i < row.size(); i++) {
+                        statement.setObject(i + 1, row.get(i));
+                    }
+                    statement.addBatch();
+                }
+                int[] counts;
+                try {
+                    counts = statement.executeBatch();
+                } catch (BatchUpdateException e) {
+                    // 驱动遇到失败后停止时，返回的结果数小于批次大小，第一条未返回结果的即为失败行
+                    List<Object> failedIds = new ArrayList<>();
+                    int[] failedCounts = e.getUpdateCounts();
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i >= failedCounts.length || failedCounts[i] == Statement.EXECUTE_FAILED) {
+                            failedIds.add(batch.get(i).get(idIndex));
+                            if (i >= failedCounts.length) {
+                                break;
+                            }
+                        }
+                    }
+                    throw new BusinessException(String.format("批量更新失败，ID：%s",
+                        StringUtil.join(failedIds, ",")), e);
+                }
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        unchangedIds.add(batch.get(i).get(idIndex));
+                    }
+                }
+            }
+        }
+        if (unchangedIds.size() > 0) {
+            logger.warn(String.format("%s批量更新时以下数据未更新（不存在或版本号不一致），ID：%s",
+                this.poInformation.getClassName(), StringUtil.join(unchangedIds, ",")));
+        }
+    }
+
+    /**
+     * 获取更新语句的参数个数
+     *
+     * @param mask 非null字段的位图
+     * @return 参数个数
+     */
+    protected int getUpdateParamCount(BitSet mask) {
+        // 非null字段及主键
+        return mask.cardinality() + 1;
+    }
+
     /**
      * 创建查询对象
      *
@@ -353,26 +867,6 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
         return nativeQuery;
     }
 
-    /**
-     * 由搜索条件参数生成jpa数据查询参数对象
-     *
-     * @param criteria 搜索条件参数
-     * @return jpa查询参数对象
-     */
-    protected Specification<PO> createSpecification(CriteriaParam criteria) {
-        return this.createSpecification(BaseParam.of().add(criteria).getCriterias());
-    }
-
-    /**
-     * 由搜索条件参数生成jpa数据查询参数对象
-     *
-     * @param criterias 搜索条件参数集合
-     * @return jpa查询参数对象
-     */
-    protected Specification<PO> createSpecification(List<CriteriaParam> criterias) {
-        return (Root<PO> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> this.setCriteria(root, cb, criterias, 0);
-    }
-
     /**
      * 由排序参数生成jpa数据查询排序对象
      *
@@ -397,137 +891,4 @@ public abstract class BaseServiceImpl<VO extends BaseVO, PO extends BasePO, R ex
         }
         return Sort.by(orders);
     }
-
-    /**
-     * 递归创建jpa查询参数对象
-     *
-     * @param root      实体类root
-     * @param cb        jpa查询参数创建对象
-     * @param criterias 搜索条件参数集合
-     * @param deep      条件深度
-     * @return jpa查询参数对象
-     */
-    private Predicate setCriteria(Root<PO> root, CriteriaBuilder cb, List<CriteriaParam> criterias, int deep) {
-        Assert.notEmpty(criterias, "条件参数集合不可为空");
-        if (criterias.size() > MAX_CRITERIA_SIZE) {
-            throw new ParamErrorException("条件参数集合大小不可大于10");
-        }
-        // 结果
-        Predicate result = null;
-        // 循环中的变量
-        Predicate predicate = null;
-        // 防止恶意攻击，导致栈溢出，限制深度最多为5层
-        if (deep >= MAX_DEEP) {
-            throw new ParamErrorException("条件深度最大为5层");
-        }
-        // 深度加1
-        deep++;
-        // 遍历条件参数集合
-        for (CriteriaParam item : criterias) {
-            // 判断字段名是否包含"."，如果包含则continue
-            if (item.getFeild().contains(".")) {
-                continue;
-            }
-            // 判断条件组是否为空
-            if (item.getCriterias() != null && item.getCriterias().size() > 0) {
-                predicate = this.setCriteria(root, cb, item.getCriterias(), deep);
-            } else {
-                predicate = this.predicateHandle(root, cb, item);
-            }
-            // 判断jpa查询参数是否为空
-            if (result == null) {
-                result = predicate;
-                continue;
-            }
-            if (predicate != null) {
-                // 判断条件间关系（默认关系为AND）
-                if (StringUtil.isEmpty(item.getRelation()) || CriteriaParam.AND.equals(item.getRelation())) {
-                    result = cb.and(result, predicate);
-                    continue;
-                }
-                if (CriteriaParam.OR.equals(item.getRelation())) {
-                    result = cb.or(result, predicate);
-                    continue;
-                }
-                throw new ParamErrorException("非法关系 " + item.getRelation());
-            }
-        }
-        return result;
-    }
-
-    /**
-     * 谓语处理
-     *
-     * @param root 实体类root
-     * @param cb   jpa查询参数创建对象
-     * @param item 搜索条件参数
-     * @return 处理后的谓语对象
-     */
-    @SuppressWarnings("unchecked")
-    private Predicate predicateHandle(Root<PO> root, CriteriaBuilder cb, CriteriaParam item) {
-        Predicate predicate = null;
-        boolean hasValue = item.getValue() != null && !"".equals(String.valueOf(item.getValue()));
-        boolean hasValues = item.getValues() != null && item.getValues().size() > 0;
-        // 当value不为null和空，或条件为必选时，添加该条件
-        if (hasValue || hasValues || item.isRequired()) {
-            // 比较操作符默认为equals
-            if (StringUtil.isEmpty(item.getOperator())) {
-                item.setOperator(CriteriaParam.EQUAL);
-            }
-            try {
-                switch (item.getOperator()) {
-                    case CriteriaParam.EQUAL:
-                        predicate = cb.equal(root.get(item.getFeild()), item.getValue());
-                        break;
-                    case CriteriaParam.NOT_EQUAL:
-                        predicate = cb.notEqual(root.get(item.getFeild()), item.getValue());
-                        break;
-                    case CriteriaParam.GT:
-                        predicate = cb.gt(root.get(item.getFeild()), (Number) item.getValue());
-                        break;
-                    case CriteriaParam.GE:
-                        predicate = cb.ge(root.get(item.getFeild()), (Number) item.getValue());
-                        break;
-                    case CriteriaParam.LT:
-                        predicate = cb.lt(root.get(item.getFeild()), (Number) item.getValue());
-                        break;
-                    case CriteriaParam.LE:
-                        predicate = cb.le(root.get(item.getFeild()), (Number) item.getValue());
-                        break;
-                    case CriteriaParam.GREATER_THAN:
-                        predicate = cb.greaterThan(root.get(item.getFeild()), (Comparable) item.getValue());
-                        break;
-                    case CriteriaParam.GREATER_THAN_OR_EQUAL_TO:
-                        predicate = cb.greaterThanOrEqualTo(root.get(item.getFeild()), (Comparable) item.getValue());
-                        break;
-                    case CriteriaParam.LESS_THEN:
-                        predicate = cb.lessThan(root.get(item.getFeild()), (Comparable) item.getValue());
-                        break;
-                    case CriteriaParam.LESS_THAN_OR_EQUAL_TO:
-                        predicate = cb.lessThanOrEqualTo(root.get(item.getFeild()), (Comparable) item.getValue());
-                        break;
-                    case CriteriaParam.LIKE:
-                        predicate = cb.like(root.get(item.getFeild()), (String) item.getValue());
-                        break;
-                    case CriteriaParam.NOT_LIKE:
-                        predicate = cb.notLike(root.get(item.getFeild()), (String) item.getValue());
-                        break;
-                    case CriteriaParam.IN:
-                        CriteriaBuilder.In<Object> in = cb.in(root.get(item.getFeild()));
-                        for (Object object : item.getValues()) {
-                            in.value(object);
-                        }
-                        predicate = in;
-                        break;
-                    default:
-                        throw new ParamErrorException("非法比较操作符 " + item.getOperator());
-                }
-            } catch (ParamErrorException e) {
-                throw new ParamErrorException(e.getMessage(), e.getCause());
-            } catch (Exception e) {
-                throw new ParamErrorException(String.format("创建条件失败，%s", e.getMessage()), e.getCause());
-            }
-        }
-        return predicate;
-    }
 }
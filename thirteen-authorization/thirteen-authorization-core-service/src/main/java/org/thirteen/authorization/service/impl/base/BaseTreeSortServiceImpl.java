@@ -1,20 +1,25 @@
 package org.thirteen.authorization.service.impl.base;
 
+import org.springframework.context.event.EventListener;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 import org.thirteen.authorization.common.utils.StringUtil;
 import org.thirteen.authorization.dozer.DozerMapper;
 import org.thirteen.authorization.model.params.base.BaseParam;
 import org.thirteen.authorization.model.params.base.CriteriaParam;
 import org.thirteen.authorization.model.params.base.SortParam;
+import org.thirteen.authorization.model.po.base.BaseRecordPO;
 import org.thirteen.authorization.model.po.base.BaseTreeSortPO;
 import org.thirteen.authorization.model.vo.base.BaseTreeSortVO;
+import org.thirteen.authorization.redis.event.TreeChangedEvent;
+import org.thirteen.authorization.redis.service.TreeChangeService;
 import org.thirteen.authorization.repository.base.BaseRepository;
 import org.thirteen.authorization.service.base.BaseTreeSortService;
+import org.thirteen.authorization.service.support.base.TreeSnapshot;
 import org.thirteen.authorization.web.PagerResult;
 
 import javax.persistence.EntityManager;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -24,14 +29,67 @@ import static org.thirteen.authorization.service.support.base.ModelInformation.*
 /**
  * @author Aaron.Sun
  * @description 通用Service层接口实现类（实体类为上下级结构）
+ * 查询使用内存中的树结构快照，快照在首次查询时由一次查询构建，写操作的事务提交后（本节点或其他节点）失效并重新构建；
+ * 写事务中的查询不使用快照，直接查询数据库，避免读到未提交的数据或将其放入快照；
+ * 查询结果中的节点为快照中的共享对象，调用方不可修改
  * @date Created in 18:15 2020/1/15
  * @modified by
  */
 public abstract class BaseTreeSortServiceImpl<VO extends BaseTreeSortVO, PO extends BaseTreeSortPO, R extends BaseRepository<PO, String>>
     extends BaseRecordServiceImpl<VO, PO, R> implements BaseTreeSortService<VO> {
 
-    public BaseTreeSortServiceImpl(R baseRepository, DozerMapper dozerMapper, EntityManager em) {
+    /**
+     * 递归查询的最大深度，防止数据中存在环时无限递归
+     */
+    private static final int MAX_TREE_DEPTH = 64;
+    /**
+     * 递归查询所有下级的语句
+     */
+    private final String childrenSql;
+    /**
+     * 递归查询自身及所有上级的语句
+     */
+    private final String parentsSql;
+    /**
+     * 树结构数据变更通知服务
+     */
+    private final TreeChangeService treeChangeService;
+    /**
+     * 树结构快照，为null时在下次查询时重新构建
+     */
+    private volatile TreeSnapshot<VO> snapshot;
+    /**
+     * 快照版本号，每次失效时递增，构建期间失效的快照不再使用
+     */
+    private long snapshotVersion;
+    private final Object snapshotLock = new Object();
+    /**
+     * 构建快照的锁，同一时刻只有一个线程构建快照
+     */
+    private final Object buildLock = new Object();
+
+    public BaseTreeSortServiceImpl(R baseRepository, DozerMapper dozerMapper, EntityManager em,
+                                   TreeChangeService treeChangeService) {
         super(baseRepository, dozerMapper, em);
+        this.treeChangeService = treeChangeService;
+        String table = this.poInformation.getTableName();
+        String code = this.poInformation.getColumnName(CODE_FIELD);
+        String parentCode = this.poInformation.getColumnName(PARENT_CODE_FIELD);
+        String delFlag = String.format("%s = '%s'", this.poInformation.getColumnName(DEL_FLAG_FIELD),
+            BaseRecordPO.DEL_FLAG_NORMAL);
+        // 递归公用表表达式只记录编码及深度，最后关联原表获取完整记录
+        this.childrenSql = String.format("WITH RECURSIVE tree (code, depth) AS ("
+                + "SELECT %2$s, 1 FROM %1$s WHERE %3$s = ?1 AND %4$s "
+                + "UNION ALL SELECT t.%2$s, tree.depth + 1 FROM %1$s t JOIN tree ON t.%3$s = tree.code "
+                + "WHERE t.%4$s AND tree.depth < %5$d) "
+                + "SELECT t.* FROM %1$s t JOIN tree ON t.%2$s = tree.code WHERE t.%4$s ORDER BY tree.depth, t.%6$s",
+            table, code, parentCode, delFlag, MAX_TREE_DEPTH, this.poInformation.getColumnName(SORT_FIELD));
+        this.parentsSql = String.format("WITH RECURSIVE tree (code, parent_code, depth) AS ("
+                + "SELECT %2$s, %3$s, 0 FROM %1$s WHERE %2$s = ?1 AND %4$s "
+                + "UNION ALL SELECT t.%2$s, t.%3$s, tree.depth + 1 FROM %1$s t JOIN tree ON t.%2$s = tree.parent_code "
+                + "WHERE t.%4$s AND tree.depth < %5$d) "
+                + "SELECT t.* FROM %1$s t JOIN tree ON t.%2$s = tree.code WHERE t.%4$s ORDER BY tree.depth",
+            table, code, parentCode, delFlag, MAX_TREE_DEPTH);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -42,6 +100,7 @@ public abstract class BaseTreeSortServiceImpl<VO extends BaseTreeSortVO, PO exte
             model.setParentCode(ROOT_PARENT_ID);
         }
         super.insert(model);
+        this.treeChangeService.publish(this.poInformation.getClassName());
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -54,41 +113,165 @@ public abstract class BaseTreeSortServiceImpl<VO extends BaseTreeSortVO, PO exte
             }
         });
         super.insertAll(models);
+        this.treeChangeService.publish(this.poInformation.getClassName());
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void update(VO model) {
+        super.update(model);
+        this.treeChangeService.publish(this.poInformation.getClassName());
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void updateAll(List<VO> models) {
+        super.updateAll(models);
+        this.treeChangeService.publish(this.poInformation.getClassName());
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void delete(String id) {
+        super.delete(id);
+        this.treeChangeService.publish(this.poInformation.getClassName());
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void deleteInBatch(List<String> ids) {
+        super.deleteInBatch(ids);
+        this.treeChangeService.publish(this.poInformation.getClassName());
     }
 
     @Override
     public PagerResult<VO> findAll() {
-        return super.findAllByParam(BaseParam.of().add(SortParam.asc(SORT_FIELD)));
+        TreeSnapshot<VO> current = this.getSnapshot();
+        if (current == null) {
+            return super.findAllByParam(BaseParam.of().add(SortParam.asc(SORT_FIELD)));
+        }
+        return PagerResult.of(current.getAll());
+    }
+
+    @Override
+    public VO findByCode(String code) {
+        TreeSnapshot<VO> current = this.getSnapshot();
+        return current == null ? super.findByCode(code) : current.get(code);
     }
 
     @Override
     public VO findParent(String code) {
+        TreeSnapshot<VO> current = this.getSnapshot();
+        if (current != null) {
+            return current.getParent(code);
+        }
         VO model = this.findOneByParam(BaseParam.of().add(CriteriaParam.equal(CODE_FIELD, code).and()));
         return Objects.nonNull(model) ? this.findOneByParam(BaseParam.of()
-            .add(CriteriaParam.equal(PARENT_CODE_FIELD, model.getParentCode()).and())) : null;
+            .add(CriteriaParam.equal(CODE_FIELD, model.getParentCode()).and())) : null;
     }
 
     @Override
     public PagerResult<VO> findAllParent(String code) {
-        List<VO> parents = new ArrayList<>();
-        VO model = this.findOneByParam(BaseParam.of().add(CriteriaParam.equal(CODE_FIELD, code).and()));
-        while (model != null) {
-            parents.add(model);
-            model = this.findOneByParam(BaseParam.of().add(CriteriaParam.equal(CODE_FIELD, model.getParentCode()).and()));
+        TreeSnapshot<VO> current = this.getSnapshot();
+        if (current != null) {
+            return PagerResult.of(current.getAncestors(code));
         }
-        return PagerResult.of(parents);
+        // 一次递归查询获取自身及所有上级，按由近及远排序
+        return PagerResult.of(this.converToVo(this.findAllByTreeSql(this.parentsSql, code)));
     }
 
     @Override
     public PagerResult<VO> findAllChildren(String code) {
-        List<VO> children = this.findAllByParam(BaseParam.of()
-            .add(CriteriaParam.equal(PARENT_CODE_FIELD, code).and())).getList();
-        if (children != null && children.size() > 0) {
-            for (VO obj : children) {
-                children.addAll(this.findAllChildren(obj.getCode()).getList());
+        // 按先序遍历排序，每个节点之后紧跟其所有下级
+        TreeSnapshot<VO> current = this.getSnapshot();
+        if (current != null) {
+            return PagerResult.of(current.getDescendants(code));
+        }
+        // 一次递归查询获取所有下级（按层级及显示顺序排序），再重排为与快照一致的先序遍历顺序
+        List<VO> children = this.converToVo(this.findAllByTreeSql(this.childrenSql, code));
+        return PagerResult.of(TreeSnapshot.of(children).getDescendants(code));
+    }
+
+    @Override
+    public boolean isDescendant(String code, String parentCode) {
+        TreeSnapshot<VO> current = this.getSnapshot();
+        if (current != null) {
+            return current.isDescendant(code, parentCode);
+        }
+        if (code == null || parentCode == null) {
+            return false;
+        }
+        // 自身及所有上级中，除自身外存在该编码，或最远上级的上级编码为该编码
+        List<PO> parents = this.findAllByTreeSql(this.parentsSql, code);
+        for (int i = 1; i < parents.size(); i++) {
+            if (parentCode.equals(parents.get(i).getCode())) {
+                return true;
+            }
+        }
+        return !parents.isEmpty() && parentCode.equals(parents.get(parents.size() - 1).getParentCode());
+    }
+
+    /**
+     * 树结构数据变更时（本节点或其他节点），失效树结构快照
+     *
+     * @param event 树结构数据变更事件
+     */
+    @EventListener
+    public void onTreeChanged(TreeChangedEvent event) {
+        if (this.poInformation.getClassName().equals(event.getTreeName())) {
+            synchronized (this.snapshotLock) {
+                this.snapshotVersion++;
+                this.snapshot = null;
             }
         }
-        return PagerResult.of(children);
+    }
+
+    /**
+     * 获取树结构快照，不存在时由一次查询构建，同时查询的其他线程等待构建完成后直接使用
+     *
+     * @return 树结构快照，存在写事务时为null（直接查询数据库）
+     */
+    protected TreeSnapshot<VO> getSnapshot() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+            && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        TreeSnapshot<VO> current = this.snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this.buildLock) {
+            // 等待期间其他线程已构建完成时，直接使用
+            current = this.snapshot;
+            if (current != null) {
+                return current;
+            }
+            long version;
+            synchronized (this.snapshotLock) {
+                version = this.snapshotVersion;
+            }
+            current = TreeSnapshot.of(super.findAllByParam(BaseParam.of().add(SortParam.asc(SORT_FIELD))).getList());
+            synchronized (this.snapshotLock) {
+                // 构建期间快照已失效时，本次结果仅用于当前查询
+                if (this.snapshotVersion == version) {
+                    this.snapshot = current;
+                }
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 执行递归查询
+     *
+     * @param sql  递归查询语句
+     * @param code 编码
+     * @return PO对象集合
+     */
+    @SuppressWarnings("unchecked")
+    private List<PO> findAllByTreeSql(String sql, String code) {
+        Assert.notNull(code, "编码不能为null");
+        return this.em.createNativeQuery(sql, this.poInformation.getRealClass()).setParameter(1, code).getResultList();
     }
 
 }
@@ -0,0 +1,107 @@
+package org.thirteen.authorization.service.support;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thirteen.authorization.common.utils.JwtUtil;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * @author Aaron.Sun
+ * @description 并行查询执行器，用于同时执行互不依赖的查询
+ * 每个查询在独立的只读事务中执行，并传递调用线程的当前用户账号；
+ * 线程池为有界队列，队列满时由调用线程直接执行
+ * @date Created in 19:20 2026/10/18
+ * @modified By
+ */
+@Component
+public class AsyncQueryExecutor implements DisposableBean {
+
+    /** 是否开启并行查询，关闭时在调用线程中依次执行 */
+    @Value("${async-query-enabled:true}")
+    private Boolean enabled;
+
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public AsyncQueryExecutor(PlatformTransactionManager transactionManager,
+                              @Value("${async-query-pool-size:8}") Integer poolSize,
+                              @Value("${async-query-queue-capacity:200}") Integer queueCapacity) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("async-query-");
+        this.executor.setDaemon(true);
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.initialize();
+    }
+
+    /**
+     * 异步执行查询
+     *
+     * @param query 查询方法
+     * @param <T>   返回值类型
+     * @return 查询结果
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> query) {
+        if (!Boolean.TRUE.equals(this.enabled)) {
+            try {
+                return CompletableFuture.completedFuture(query.get());
+            } catch (RuntimeException e) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+                return future;
+            }
+        }
+        String account = JwtUtil.getAccount();
+        return CompletableFuture.supplyAsync(() -> {
+            // 传递调用线程的当前用户账号
+            String previous = JwtUtil.getAccount();
+            JwtUtil.setAccount(account);
+            try {
+                return this.readOnlyTransaction.execute(status -> query.get());
+            } finally {
+                if (previous == null) {
+                    JwtUtil.removeAccount();
+                } else {
+                    JwtUtil.setAccount(previous);
+                }
+            }
+        }, this.executor);
+    }
+
+    /**
+     * 等待查询结果，查询抛出的运行时异常原样抛出
+     *
+     * @param future 查询结果
+     * @param <T>    返回值类型
+     * @return 查询结果
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdown();
+    }
+}
@@ -0,0 +1,32 @@
+package org.thirteen.authorization.service.support;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @author Aaron.Sun
+ * @description 事务回调工具类
+ * @date Created in 15:02 2026/10/18
+ * @modified By
+ */
+public class TransactionCallbacks {
+
+    /**
+     * 存在事务时，在事务提交后执行（回滚时不执行），否则立即执行
+     *
+     * @param action 执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.thirteen.authorization.service.support.base;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * @author Aaron.Sun
+ * @description 总记录数缓存，key为查询条件，过期后重新统计，用于估算总记录数
+ * @date Created in 10:40 2026/10/18
+ * @modified By
+ */
+public class CountCache {
+
+    /**
+     * 缓存的最大条件数，超出后清除已过期的记录，仍超出时清空
+     */
+    private static final int MAX_SIZE = 1024;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 获取总记录数，不存在或已过期时重新统计并放入缓存
+     *
+     * @param key     查询条件
+     * @param ttl     有效期（毫秒）
+     * @param counter 统计方法
+     * @return 总记录数
+     */
+    public long get(String key, long ttl, LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        Entry entry = this.cache.get(key);
+        if (entry != null && entry.expireAt > now) {
+            return entry.count;
+        }
+        long count = counter.getAsLong();
+        if (this.cache.size() >= MAX_SIZE) {
+            this.cache.values().removeIf(item -> item.expireAt <= now);
+            if (this.cache.size() >= MAX_SIZE) {
+                this.cache.clear();
+            }
+        }
+        this.cache.put(key, new Entry(count, now + ttl));
+        return count;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expireAt;
+
+        private Entry(long count, long expireAt) {
+            this.count = count;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package org.thirteen.authorization.service.support.base;
+
+import org.springframework.data.domain.Sort;
+import org.thirteen.authorization.common.utils.StringUtil;
+import org.thirteen.authorization.exceptions.EntityErrorException;
+import org.thirteen.authorization.exceptions.ParamErrorException;
+import org.thirteen.authorization.model.params.base.CriteriaParam;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Aaron.Sun
+ * @description 条件编译器，将条件参数集合编译为带位置参数的JPQL条件语句
+ * 条件参数集合按字段、比较操作符、关系及是否生效归一化为形状，相同形状的条件复用缓存的语句，仅重新绑定参数值；
+ * 语句相同使Hibernate的查询计划缓存命中，查询时不再遍历条件生成jpa查询参数对象
+ * 条件依次按各自的关系与之前的结果组合，必选且值为null的等于（不等于）条件生成IS NULL（IS NOT NULL）；
+ * 与Hibernate的Criteria查询一致，数值类型字段的参数值转换为字段类型
+ * @date Created in 16:20 2026/10/18
+ * @modified By
+ */
+public class CriteriaCompiler {
+
+    /**
+     * 查询语句中实体的别名
+     */
+    public static final String ALIAS = "t";
+    /**
+     * 每层条件的最大值
+     */
+    private static final int MAX_CRITERIA_SIZE = 10;
+    /**
+     * 条件最大深度
+     */
+    private static final int MAX_DEEP = 5;
+    /**
+     * 缓存的最大条件形状数，超出后不再缓存
+     */
+    private static final int MAX_SIZE = 256;
+    /**
+     * 所有条件编译器，用于查看统计信息
+     */
+    private static final Map<String, CriteriaCompiler> COMPILERS = new ConcurrentHashMap<>();
+
+    /** 编译器名称 */
+    private final String name;
+    /** 模型信息 */
+    private final ModelInformation<?> information;
+    /** key为条件形状，value为条件语句 */
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    private CriteriaCompiler(String name, ModelInformation<?> information) {
+        this.name = name;
+        this.information = information;
+    }
+
+    /**
+     * 创建条件编译器，并加入统计
+     *
+     * @param name        编译器名称
+     * @param information 模型信息
+     * @return 条件编译器
+     */
+    public static CriteriaCompiler of(String name, ModelInformation<?> information) {
+        return COMPILERS.computeIfAbsent(name, key -> new CriteriaCompiler(key, information));
+    }
+
+    /**
+     * 获取所有条件编译器
+     *
+     * @return 所有条件编译器
+     */
+    public static Collection<CriteriaCompiler> getAll() {
+        return Collections.unmodifiableCollection(COMPILERS.values());
+    }
+
+    /**
+     * 编译条件参数集合
+     *
+     * @param criterias 搜索条件参数集合，可为null
+     * @return 编译后的条件
+     */
+    public CompiledCriteria compile(List<CriteriaParam> criterias) {
+        if (criterias == null || criterias.isEmpty()) {
+            return new CompiledCriteria("", Collections.emptyList());
+        }
+        StringBuilder shape = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        this.collect(criterias, 0, shape, params);
+        String key = shape.toString();
+        String where = this.cache.get(key);
+        if (where != null) {
+            this.hitCount.increment();
+        } else {
+            this.missCount.increment();
+            StringBuilder builder = new StringBuilder();
+            String predicate = this.render(criterias, new int[]{0});
+            if (predicate != null) {
+                builder.append(" WHERE ").append(predicate);
+            }
+            where = builder.toString();
+            if (this.cache.size() < MAX_SIZE) {
+                this.cache.putIfAbsent(key, where);
+            }
+        }
+        return new CompiledCriteria(where, params);
+    }
+
+    /**
+     * 生成排序语句
+     *
+     * @param sort 排序对象，可为null
+     * @return 排序语句，无排序时为空字符串
+     */
+    public String orderBy(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(" ORDER BY ");
+        boolean first = true;
+        for (Sort.Order order : sort) {
+            if (!first) {
+                builder.append(", ");
+            }
+            first = false;
+            builder.append(this.path(order.getProperty())).append(order.isAscending() ? " ASC" : " DESC");
+        }
+        return builder.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 校验条件，生成条件形状并收集参数值（参数值的顺序与生成语句时位置参数的顺序一致）
+     */
+    private void collect(List<CriteriaParam> criterias, int deep, StringBuilder shape, List<Object> params) {
+        if (criterias.size() > MAX_CRITERIA_SIZE) {
+            throw new ParamErrorException("条件参数集合大小不可大于10");
+        }
+        // 防止恶意攻击，导致栈溢出，限制深度最多为5层
+        if (deep >= MAX_DEEP) {
+            throw new ParamErrorException("条件深度最大为5层");
+        }
+        for (CriteriaParam item : criterias) {
+            shape.append(item.getRelation()).append(':');
+            if (isSkipped(item)) {
+                shape.append('-');
+            } else if (isGroup(item)) {
+                shape.append('(');
+                this.collect(item.getCriterias(), deep + 1, shape, params);
+                shape.append(')');
+            } else if (!isEffective(item)) {
+                shape.append('-');
+            } else {
+                String operator = getOperator(item);
+                shape.append(item.getFeild()).append(' ').append(operator);
+                Object param = this.coerce(item.getFeild(), getParam(item, operator));
+                if (param == null) {
+                    // 无参数值的条件（is null、is not null、恒假）
+                    shape.append(" #");
+                } else {
+                    params.add(param);
+                }
+            }
+            shape.append(';');
+        }
+    }
+
+    /**
+     * 生成条件语句，与collect的遍历顺序一致
+     */
+    private String render(List<CriteriaParam> criterias, int[] index) {
+        String result = null;
+        for (CriteriaParam item : criterias) {
+            if (isSkipped(item)) {
+                continue;
+            }
+            String predicate;
+            if (isGroup(item)) {
+                predicate = this.render(item.getCriterias(), index);
+            } else if (isEffective(item)) {
+                predicate = this.renderPredicate(item, index);
+            } else {
+                predicate = null;
+            }
+            if (result == null) {
+                result = predicate;
+                continue;
+            }
+            if (predicate != null) {
+                // 判断条件间关系（默认关系为AND）
+                if (StringUtil.isEmpty(item.getRelation()) || CriteriaParam.AND.equals(item.getRelation())) {
+                    result = String.format("(%s AND %s)", result, predicate);
+                    continue;
+                }
+                if (CriteriaParam.OR.equals(item.getRelation())) {
+                    result = String.format("(%s OR %s)", result, predicate);
+                    continue;
+                }
+                throw new ParamErrorException("非法关系 " + item.getRelation());
+            }
+        }
+        return result;
+    }
+
+    private String renderPredicate(CriteriaParam item, int[] index) {
+        String operator = getOperator(item);
+        String path = this.path(item.getFeild());
+        if (getParam(item, operator) == null) {
+            if (CriteriaParam.IN.equals(operator)) {
+                return "1 = 0";
+            }
+            return path + (CriteriaParam.EQUAL.equals(operator) ? " IS NULL" : " IS NOT NULL");
+        }
+        String param = "?" + (++index[0]);
+        switch (operator) {
+            case CriteriaParam.EQUAL:
+                return path + " = " + param;
+            case CriteriaParam.NOT_EQUAL:
+                return path + " <> " + param;
+            case CriteriaParam.GT:
+            case CriteriaParam.GREATER_THAN:
+                return path + " > " + param;
+            case CriteriaParam.GE:
+            case CriteriaParam.GREATER_THAN_OR_EQUAL_TO:
+                return path + " >= " + param;
+            case CriteriaParam.LT:
+            case CriteriaParam.LESS_THEN:
+                return path + " < " + param;
+            case CriteriaParam.LE:
+            case CriteriaParam.LESS_THAN_OR_EQUAL_TO:
+                return path + " <= " + param;
+            case CriteriaParam.LIKE:
+                return path + " LIKE " + param;
+            case CriteriaParam.NOT_LIKE:
+                return path + " NOT LIKE " + param;
+            case CriteriaParam.IN:
+                return path + " IN " + param;
+            default:
+                throw new ParamErrorException("非法比较操作符 " + operator);
+        }
+    }
+
+    /**
+     * 获取字段在语句中的路径，字段必须为实体的持久化字段（字段名会拼接到语句中）
+     */
+    private String path(String field) {
+        try {
+            this.information.getColumnName(field);
+        } catch (EntityErrorException e) {
+            throw new ParamErrorException("非法字段 " + field);
+        }
+        return ALIAS + "." + field;
+    }
+
+    /**
+     * 数值类型字段的参数值转换为字段类型（IN条件转换每个值），绑定参数时类型须与字段一致
+     */
+    private Object coerce(String field, Object param) {
+        Class<?> type;
+        try {
+            type = this.information.getFieldType(field);
+        } catch (EntityErrorException e) {
+            throw new ParamErrorException("非法字段 " + field);
+        }
+        if (param == null || !Number.class.isAssignableFrom(type)) {
+            return param;
+        }
+        if (param instanceof Collection) {
+            List<Object> values = new ArrayList<>(((Collection<?>) param).size());
+            for (Object value : (Collection<?>) param) {
+                values.add(toNumber(field, value, type));
+            }
+            return values;
+        }
+        return toNumber(field, param, type);
+    }
+
+    private static Object toNumber(String field, Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (!(value instanceof Number) && !(value instanceof String)) {
+            throw new ParamErrorException(String.format("创建条件失败，字段%s的值必须为数值类型", field));
+        }
+        try {
+            BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+            if (type == Integer.class) {
+                return decimal.intValueExact();
+            }
+            if (type == Long.class) {
+                return decimal.longValueExact();
+            }
+            if (type == Short.class) {
+                return decimal.shortValueExact();
+            }
+            if (type == Byte.class) {
+                return decimal.byteValueExact();
+            }
+            if (type == Double.class) {
+                return decimal.doubleValue();
+            }
+            if (type == Float.class) {
+                return decimal.floatValue();
+            }
+            if (type == BigInteger.class) {
+                return decimal.toBigIntegerExact();
+            }
+            return type == BigDecimal.class ? decimal : value;
+        } catch (NumberFormatException e) {
+            throw new ParamErrorException(String.format("创建条件失败，字段%s的值必须为数值类型", field), e);
+        } catch (ArithmeticException e) {
+            // 整数类型的值含有小数部分或超出范围时，不截断，避免条件被静默改写
+            throw new ParamErrorException(String.format("创建条件失败，字段%s的值必须为整数且不能超出范围", field), e);
+        }
+    }
+
+    /**
+     * 获取条件的参数值，无参数值时返回null
+     */
+    private static Object getParam(CriteriaParam item, String operator) {
+        switch (operator) {
+            case CriteriaParam.IN:
+                return item.getValues() == null || item.getValues().isEmpty() ? null : item.getValues();
+            case CriteriaParam.EQUAL:
+            case CriteriaParam.NOT_EQUAL:
+                return item.getValue();
+            case CriteriaParam.GT:
+            case CriteriaParam.GE:
+            case CriteriaParam.LT:
+            case CriteriaParam.LE:
+                return checkType(item, Number.class);
+            case CriteriaParam.GREATER_THAN:
+            case CriteriaParam.GREATER_THAN_OR_EQUAL_TO:
+            case CriteriaParam.LESS_THEN:
+            case CriteriaParam.LESS_THAN_OR_EQUAL_TO:
+                return checkType(item, Comparable.class);
+            case CriteriaParam.LIKE:
+            case CriteriaParam.NOT_LIKE:
+                return checkType(item, String.class);
+            default:
+                throw new ParamErrorException("非法比较操作符 " + operator);
+        }
+    }
+
+    private static Object checkType(CriteriaParam item, Class<?> type) {
+        if (!type.isInstance(item.getValue())) {
+            throw new ParamErrorException(String.format("创建条件失败，字段%s的值必须为%s类型",
+                item.getFeild(), type.getSimpleName()));
+        }
+        return item.getValue();
+    }
+
+    private static String getOperator(CriteriaParam item) {
+        // 比较操作符默认为equals
+        return StringUtil.isEmpty(item.getOperator()) ? CriteriaParam.EQUAL : item.getOperator();
+    }
+
+    /**
+     * 字段名包含"."的条件不生效
+     */
+    private static boolean isSkipped(CriteriaParam item) {
+        return item.getFeild() != null && item.getFeild().contains(".");
+    }
+
+    private static boolean isGroup(CriteriaParam item) {
+        return item.getCriterias() != null && item.getCriterias().size() > 0;
+    }
+
+    /**
+     * 当value不为null和空，或条件为必选时，条件生效
+     */
+    private static boolean isEffective(CriteriaParam item) {
+        boolean hasValue = item.getValue() != null && !"".equals(String.valueOf(item.getValue()));
+        boolean hasValues = item.getValues() != null && item.getValues().size() > 0;
+        return hasValue || hasValues || item.isRequired();
+    }
+
+    /**
+     * 编译后的条件
+     */
+    public static class CompiledCriteria {
+
+        /**
+         * 条件语句（包含WHERE关键字），无条件时为空字符串
+         */
+        private final String where;
+        /**
+         * 位置参数值
+         */
+        private final List<Object> params;
+
+        private CompiledCriteria(String where, List<Object> params) {
+            this.where = where;
+            this.params = params;
+        }
+
+        /**
+         * 以AND关系追加条件
+         * 原条件语句为单个条件或带括号的组合条件，可直接追加
+         *
+         * @param predicate 追加的条件语句，位置参数由原参数数量加1开始编号
+         * @param params    追加的位置参数值
+         * @return 追加后的条件
+         */
+        public CompiledCriteria and(String predicate, List<Object> params) {
+            List<Object> all = new ArrayList<>(this.params.size() + params.size());
+            all.addAll(this.params);
+            all.addAll(params);
+            String where = this.where.isEmpty() ? " WHERE " + predicate : this.where + " AND (" + predicate + ")";
+            return new CompiledCriteria(where, all);
+        }
+
+        public String getWhere() {
+            return where;
+        }
+
+        public List<Object> getParams() {
+            return params;
+        }
+    }
+}
@@ -4,22 +4,30 @@ import org.springframework.util.Assert;
 import org.thirteen.authorization.common.utils.StringUtil;
 import org.thirteen.authorization.exceptions.EntityErrorException;
 
+import javax.persistence.Column;
 import javax.persistence.Table;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.lang.reflect.Modifier;
+import java.util.*;
 
 /**
  * @author Aaron.Sun
  * @description 通过反射获取model（PO、VO等对象）的信息，如：是否包含某属性，是否包含某方法，反射调用某方法等
+ * 字段名集合及字段的get/set方法在构造时一次性解析，调用时不再反射查找
  * @date Created in 10:26 2019/12/27
  * @modified by
  */
 public class ModelInformation<T> {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
     /**
      * 当前泛型真实类型的Class
      */
@@ -36,6 +44,38 @@ public class ModelInformation<T> {
      * 当前泛型对象中的所有属性，包含父类中的属性
      */
     private Field[] fields;
+    /**
+     * 所有属性名
+     */
+    private final Set<String> fieldNames;
+    /**
+     * 可更新的属性名（不包含主键、静态及final属性、@Transient属性）
+     */
+    private final List<String> updatableFields;
+    /**
+     * 属性的类型
+     */
+    private final Map<String, Class<?>> fieldTypes;
+    /**
+     * 属性对应的列名，仅PO模型存在列名
+     */
+    private final Map<String, String> columnNames;
+    /**
+     * 属性的get方法
+     */
+    private final Map<String, Method> getters;
+    /**
+     * 属性的set方法（入参类型为属性类型）
+     */
+    private final Map<String, Method> setters;
+    /**
+     * 属性的get方法句柄
+     */
+    private final Map<String, MethodHandle> getterHandles;
+    /**
+     * 属性的set方法句柄
+     */
+    private final Map<String, MethodHandle> setterHandles;
     /**
      * 主键ID字段
      */
@@ -99,6 +139,57 @@ public class ModelInformation<T> {
             clazz = clazz.getSuperclass();
         }
         this.fields = fieldList.toArray(new Field[0]);
+        // 预先解析属性名及get/set方法
+        Set<String> names = new HashSet<>();
+        List<String> updatable = new ArrayList<>();
+        Map<String, Class<?>> fieldTypeMap = new HashMap<>();
+        Map<String, String> columnNameMap = new HashMap<>();
+        Map<String, Method> getterMap = new HashMap<>();
+        Map<String, Method> setterMap = new HashMap<>();
+        Map<String, MethodHandle> getterHandleMap = new HashMap<>();
+        Map<String, MethodHandle> setterHandleMap = new HashMap<>();
+        for (Field field : this.fields) {
+            String name = field.getName();
+            // 子类属性优先
+            if (!names.add(name)) {
+                continue;
+            }
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            fieldTypeMap.put(name, field.getType());
+            if (!ID_FIELD.equals(name) && !Modifier.isFinal(field.getModifiers()) && !this.isTransient(field)) {
+                updatable.add(name);
+            }
+            if (this.tableName != null && !this.isTransient(field)) {
+                Column column = field.getAnnotation(Column.class);
+                columnNameMap.put(name, column != null && StringUtil.isNotEmpty(column.name()) ? column.name()
+                    : name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase());
+            }
+            String capitalized = StringUtil.capitalize(name);
+            try {
+                Method getter = domainType.getMethod("get" + capitalized);
+                getterMap.put(name, getter);
+                getterHandleMap.put(name, LOOKUP.unreflect(getter).asType(GETTER_TYPE));
+            } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                // 无get方法或无访问权限时，调用时使用反射
+            }
+            try {
+                Method setter = domainType.getMethod("set" + capitalized, field.getType());
+                setterMap.put(name, setter);
+                setterHandleMap.put(name, LOOKUP.unreflect(setter).asType(SETTER_TYPE));
+            } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                // 无set方法或无访问权限时，调用时使用反射
+            }
+        }
+        this.fieldNames = Collections.unmodifiableSet(names);
+        this.updatableFields = Collections.unmodifiableList(updatable);
+        this.fieldTypes = fieldTypeMap;
+        this.columnNames = columnNameMap;
+        this.getters = getterMap;
+        this.setters = setterMap;
+        this.getterHandles = getterHandleMap;
+        this.setterHandles = setterHandleMap;
     }
 
     public T newInstance() {
@@ -117,13 +208,7 @@ public class ModelInformation<T> {
      */
     public boolean contains(String field) {
         Assert.notNull(field, "The given field must not be null!");
-        boolean flag = false;
-        for (Field f : this.fields) {
-            if (field.equals(f.getName())) {
-                flag = true;
-            }
-        }
-        return flag;
+        return this.fieldNames.contains(field);
     }
 
     /**
@@ -136,7 +221,10 @@ public class ModelInformation<T> {
      */
     public Method getSetter(String field, Class<?>... parameterTypes) throws EntityErrorException {
         Assert.notNull(field, "The given field must not be null!");
-        Method method;
+        Method method = this.setters.get(field);
+        if (method != null && Arrays.equals(method.getParameterTypes(), parameterTypes)) {
+            return method;
+        }
         // 字段的set方法名
         String setter = "set" + StringUtil.capitalize(field);
         try {
@@ -156,7 +244,10 @@ public class ModelInformation<T> {
      */
     public Method getGetter(String field) throws EntityErrorException {
         Assert.notNull(field, "The given field must not be null!");
-        Method method;
+        Method method = this.getters.get(field);
+        if (method != null) {
+            return method;
+        }
         // 字段的get方法名
         String getter = "get" + StringUtil.capitalize(field);
         try {
@@ -178,6 +269,16 @@ public class ModelInformation<T> {
     public void invokeSet(String field, Class<?>[] parameterTypes, Object obj, Object... args) {
         Assert.notNull(field, "The given field must not be null!");
         Assert.notNull(obj, "Object must not be null!");
+        MethodHandle handle = this.setterHandles.get(field);
+        if (handle != null && args.length == 1 && parameterTypes.length == 1
+            && parameterTypes[0] == this.setters.get(field).getParameterTypes()[0]) {
+            try {
+                handle.invokeExact(obj, args[0]);
+                return;
+            } catch (Throwable e) {
+                throw new EntityErrorException(e.getMessage(), e);
+            }
+        }
         invokeSet(getSetter(field, parameterTypes), obj, args);
     }
 
@@ -191,6 +292,14 @@ public class ModelInformation<T> {
     public Object invokeGet(String field, Object obj, Object... args) {
         Assert.notNull(field, "The given field must not be null!");
         Assert.notNull(obj, "Object must not be null!");
+        MethodHandle handle = this.getterHandles.get(field);
+        if (handle != null && args.length == 0) {
+            try {
+                return (Object) handle.invokeExact(obj);
+            } catch (Throwable e) {
+                throw new EntityErrorException(e.getMessage(), e);
+            }
+        }
         return invokeGet(getGetter(field), obj, args);
     }
 
@@ -262,6 +371,45 @@ public class ModelInformation<T> {
         return this.fields;
     }
 
+    /**
+     * 获取字段的类型
+     *
+     * @param field 字段
+     * @return 字段的类型
+     * @throws EntityErrorException 字段不存在
+     */
+    public Class<?> getFieldType(String field) throws EntityErrorException {
+        Class<?> fieldType = this.fieldTypes.get(field);
+        if (fieldType == null) {
+            throw new EntityErrorException(String.format("%s中不存在字段%s", this.className, field));
+        }
+        return fieldType;
+    }
+
+    /**
+     * 获取PO对象字段对应的列名
+     *
+     * @param field 字段
+     * @return 对应的列名
+     * @throws EntityErrorException 字段不存在或不会映射到数据库
+     */
+    public String getColumnName(String field) throws EntityErrorException {
+        String columnName = this.columnNames.get(field);
+        if (columnName == null) {
+            throw new EntityErrorException(String.format("%s中不存在字段%s对应的列", this.className, field));
+        }
+        return columnName;
+    }
+
+    /**
+     * 获取对象的所有可更新字段名（不包含主键、静态及final字段、@Transient字段）
+     *
+     * @return 对象的所有可更新字段名
+     */
+    public List<String> getUpdatableFields() {
+        return this.updatableFields;
+    }
+
     /**
      * 判断字段是否不会映射到数据库
      *
@@ -0,0 +1,212 @@
+package org.thirteen.authorization.service.support.base;
+
+import org.springframework.data.domain.Sort;
+import org.thirteen.authorization.common.utils.JsonUtil;
+import org.thirteen.authorization.exceptions.ParamErrorException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.thirteen.authorization.service.support.base.ModelInformation.ID_FIELD;
+
+/**
+ * @author Aaron.Sun
+ * @description 游标分页（seek分页）的游标，游标为最后一条记录的排序字段值及主键经Base64编码后的字符串
+ * 排序字段末尾固定追加主键升序，保证排序稳定；下一页的条件由排序字段生成，与页码深度无关
+ * null值的排序与MySQL一致：升序时null在最前，降序时null在最后
+ * @date Created in 09:20 2026/10/18
+ * @modified By
+ */
+public class SeekCursor<T> {
+
+    /**
+     * 模型信息
+     */
+    private final ModelInformation<T> information;
+    /**
+     * 排序（末尾包含主键）
+     */
+    private final List<Sort.Order> orders;
+    /**
+     * 排序签名，用于校验游标与排序是否一致
+     */
+    private final String signature;
+
+    private SeekCursor(ModelInformation<T> information, List<Sort.Order> orders) {
+        this.information = information;
+        this.orders = orders;
+        StringBuilder builder = new StringBuilder();
+        for (Sort.Order order : orders) {
+            builder.append(order.getProperty()).append(':').append(order.getDirection()).append(',');
+        }
+        this.signature = Integer.toHexString(builder.toString().hashCode());
+    }
+
+    /**
+     * 由排序创建游标，排序字段必须存在且为可比较的类型
+     *
+     * @param information 模型信息
+     * @param sort        排序
+     * @param <T>         模型类型
+     * @return 游标
+     */
+    public static <T> SeekCursor<T> of(ModelInformation<T> information, Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!information.contains(order.getProperty())) {
+                throw new ParamErrorException("非法排序字段 " + order.getProperty());
+            }
+            if (!isSupported(information.getFieldType(order.getProperty()))) {
+                throw new ParamErrorException("不支持游标分页的排序字段 " + order.getProperty());
+            }
+            orders.add(order);
+            // 主键之后的排序没有意义
+            if (ID_FIELD.equals(order.getProperty())) {
+                return new SeekCursor<>(information, orders);
+            }
+        }
+        orders.add(Sort.Order.asc(ID_FIELD));
+        return new SeekCursor<>(information, orders);
+    }
+
+    /**
+     * 获取排序（末尾包含主键）
+     *
+     * @return 排序
+     */
+    public Sort getSort() {
+        return Sort.by(this.orders);
+    }
+
+    /**
+     * 由记录生成游标字符串
+     *
+     * @param model 记录
+     * @return 游标字符串
+     */
+    public String encode(T model) {
+        String[] values = new String[this.orders.size() + 1];
+        values[0] = this.signature;
+        for (int i = 0; i < this.orders.size(); i++) {
+            values[i + 1] = format(this.information.invokeGet(this.orders.get(i).getProperty(), model));
+        }
+        String json = JsonUtil.toJsonString(values);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param cursor 游标字符串
+     * @return 排序字段值
+     */
+    public Object[] decode(String cursor) {
+        String[] values;
+        try {
+            values = JsonUtil.parseObject(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8),
+                String[].class);
+        } catch (IllegalArgumentException e) {
+            throw new ParamErrorException("非法游标", e);
+        }
+        if (values == null || values.length != this.orders.size() + 1 || !this.signature.equals(values[0])) {
+            throw new ParamErrorException("游标与排序参数不一致");
+        }
+        Object[] result = new Object[this.orders.size()];
+        for (int i = 0; i < this.orders.size(); i++) {
+            String field = this.orders.get(i).getProperty();
+            try {
+                result[i] = parse(values[i + 1], this.information.getFieldType(field));
+            } catch (RuntimeException e) {
+                throw new ParamErrorException("非法游标", e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 生成游标之后记录的JPQL条件：(f1 > v1) OR (f1 = v1 AND f2 > v2) OR ...
+     * 每个非null的排序字段值对应一个位置参数，在条件中可重复引用
+     *
+     * @param alias  查询语句中实体的别名
+     * @param values 排序字段值
+     * @param start  已有的位置参数数量，位置参数由start + 1开始编号
+     * @param params 位置参数值，生成的参数值按顺序追加到该集合
+     * @return 条件语句
+     */
+    public String toJpql(String alias, Object[] values, int start, List<Object> params) {
+        List<String> branches = new ArrayList<>();
+        List<String> equals = new ArrayList<>();
+        int index = start;
+        for (int i = 0; i < this.orders.size(); i++) {
+            Sort.Order order = this.orders.get(i);
+            String path = alias + "." + order.getProperty();
+            String param = null;
+            if (values[i] != null) {
+                params.add(values[i]);
+                param = "?" + (++index);
+            }
+            List<String> branch = new ArrayList<>(equals);
+            branch.add(after(path, order.isAscending(), param));
+            branches.add("(" + String.join(" AND ", branch) + ")");
+            equals.add(param == null ? path + " IS NULL" : path + " = " + param);
+        }
+        return String.join(" OR ", branches);
+    }
+
+    /**
+     * 生成排在指定值之后的条件
+     */
+    private static String after(String path, boolean ascending, String param) {
+        if (param == null) {
+            // 升序时null在最前，之后为所有非null值；降序时null在最后，之后没有值
+            return ascending ? path + " IS NOT NULL" : "1 = 0";
+        }
+        if (ascending) {
+            return path + " > " + param;
+        }
+        return "(" + path + " < " + param + " OR " + path + " IS NULL)";
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return type == String.class || type == Integer.class || type == Long.class || type == BigDecimal.class
+            || type == LocalDateTime.class || type == LocalDate.class || type == Date.class;
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Date) {
+            return String.valueOf(((Date) value).getTime());
+        }
+        return value.toString();
+    }
+
+    private static Object parse(String value, Class<?> type) {
+        if (value == null || type == String.class) {
+            return value;
+        }
+        if (type == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == BigDecimal.class) {
+            return new BigDecimal(value);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.parse(value);
+        }
+        return new Date(Long.parseLong(value));
+    }
+}
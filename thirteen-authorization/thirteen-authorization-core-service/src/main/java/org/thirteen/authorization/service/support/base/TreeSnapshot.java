@@ -0,0 +1,222 @@
+package org.thirteen.authorization.service.support.base;
+
+import org.thirteen.authorization.model.vo.base.BaseTreeSortVO;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Aaron.Sun
+ * @description 树结构快照（不可变），由按显示顺序排序的所有节点一次构建
+ * 节点按先序遍历排列，每个节点的所有下级为先序序列中的连续区间[index + 1, end)，
+ * 获取下级为区间截取，判断是否为下级为O(1)，获取上级为O(深度)
+ * 上级不存在的节点视为根节点；存在环时，环中第一个未遍历到的节点视为根节点
+ * @date Created in 11:30 2026/10/18
+ * @modified By
+ */
+public class TreeSnapshot<T extends BaseTreeSortVO> {
+
+    /**
+     * 所有节点（构建时的顺序）
+     */
+    private final List<T> all;
+    /**
+     * 先序遍历的节点
+     */
+    private final List<T> nodes;
+    /**
+     * 编码对应的先序下标
+     */
+    private final Map<String, Integer> indexes;
+    /**
+     * 上级节点的先序下标，根节点为-1
+     */
+    private final int[] parents;
+    /**
+     * 下级区间的结束下标（不包含）
+     */
+    private final int[] ends;
+
+    private TreeSnapshot(List<T> all, List<T> nodes, Map<String, Integer> indexes, int[] parents, int[] ends) {
+        this.all = all;
+        this.nodes = nodes;
+        this.indexes = indexes;
+        this.parents = parents;
+        this.ends = ends;
+    }
+
+    /**
+     * 构建树结构快照
+     *
+     * @param models 按显示顺序排序的所有节点
+     * @param <T>    节点类型
+     * @return 树结构快照
+     */
+    public static <T extends BaseTreeSortVO> TreeSnapshot<T> of(List<T> models) {
+        List<T> all = new ArrayList<>();
+        Map<String, T> codeMap = new HashMap<>();
+        for (T model : models) {
+            if (model.getCode() != null && codeMap.putIfAbsent(model.getCode(), model) == null) {
+                all.add(model);
+            }
+        }
+        // 上级编码对应的下级（保持显示顺序）
+        Map<String, List<T>> childrenMap = new HashMap<>();
+        for (T model : all) {
+            childrenMap.computeIfAbsent(model.getParentCode(), key -> new ArrayList<>()).add(model);
+        }
+        List<T> nodes = new ArrayList<>(all.size());
+        Map<String, Integer> indexes = new HashMap<>();
+        int[] parents = new int[all.size()];
+        int[] ends = new int[all.size()];
+        // 先遍历上级不存在的节点，再遍历未遍历到的节点（环）
+        List<T> roots = new ArrayList<>();
+        for (T model : all) {
+            if (model.getParentCode() == null || !codeMap.containsKey(model.getParentCode())) {
+                roots.add(model);
+            }
+        }
+        roots.addAll(all);
+        // 非递归先序遍历，栈中元素为{先序下标, 下一个待遍历的下级序号}
+        Deque<int[]> stack = new ArrayDeque<>();
+        for (T root : roots) {
+            if (indexes.containsKey(root.getCode())) {
+                continue;
+            }
+            visit(root, -1, nodes, indexes, parents, stack);
+            while (!stack.isEmpty()) {
+                int[] top = stack.peek();
+                List<T> children = childrenMap.getOrDefault(nodes.get(top[0]).getCode(), Collections.emptyList());
+                T next = null;
+                while (top[1] < children.size() && next == null) {
+                    T child = children.get(top[1]++);
+                    if (!indexes.containsKey(child.getCode())) {
+                        next = child;
+                    }
+                }
+                if (next != null) {
+                    visit(next, top[0], nodes, indexes, parents, stack);
+                } else {
+                    ends[stack.pop()[0]] = nodes.size();
+                }
+            }
+        }
+        return new TreeSnapshot<>(Collections.unmodifiableList(all), Collections.unmodifiableList(nodes),
+            indexes, parents, ends);
+    }
+
+    private static <T extends BaseTreeSortVO> void visit(T model, int parent, List<T> nodes,
+                                                         Map<String, Integer> indexes, int[] parents,
+                                                         Deque<int[]> stack) {
+        int index = nodes.size();
+        nodes.add(model);
+        indexes.put(model.getCode(), index);
+        parents[index] = parent;
+        stack.push(new int[]{index, 0});
+    }
+
+    /**
+     * 获取所有节点（构建时的顺序）
+     *
+     * @return 所有节点
+     */
+    public List<T> getAll() {
+        return this.all;
+    }
+
+    /**
+     * 由编码获取节点
+     *
+     * @param code 编码
+     * @return 节点，不存在时为null
+     */
+    public T get(String code) {
+        Integer index = this.indexes.get(code);
+        return index == null ? null : this.nodes.get(index);
+    }
+
+    /**
+     * 获取上级节点
+     *
+     * @param code 编码
+     * @return 上级节点，节点或上级不存在时为null
+     */
+    public T getParent(String code) {
+        Integer index = this.indexes.get(code);
+        return index == null || this.parents[index] < 0 ? null : this.nodes.get(this.parents[index]);
+    }
+
+    /**
+     * 获取自身及所有上级节点，按由近及远排序
+     *
+     * @param code 编码
+     * @return 自身及所有上级节点，节点不存在时为空集合
+     */
+    public List<T> getAncestors(String code) {
+        List<T> ancestors = new ArrayList<>();
+        Integer index = this.indexes.get(code);
+        for (int i = index == null ? -1 : index; i >= 0; i = this.parents[i]) {
+            ancestors.add(this.nodes.get(i));
+        }
+        return ancestors;
+    }
+
+    /**
+     * 获取所有下级节点，按先序遍历排序
+     *
+     * @param code 编码，不存在时视为上级编码（如根节点的上级编码）
+     * @return 所有下级节点
+     */
+    public List<T> getDescendants(String code) {
+        Integer index = this.indexes.get(code);
+        if (index != null) {
+            return this.nodes.subList(index + 1, this.ends[index]);
+        }
+        // 上级编码不对应节点时，返回以该编码为上级的根节点及其下级
+        List<T> descendants = new ArrayList<>();
+        for (int i = 0; i < this.nodes.size(); i = this.ends[i]) {
+            if (code != null && code.equals(this.nodes.get(i).getParentCode())) {
+                descendants.addAll(this.nodes.subList(i, this.ends[i]));
+            }
+        }
+        return descendants;
+    }
+
+    /**
+     * 判断节点是否为指定节点的下级（不包含自身）
+     *
+     * @param code         编码
+     * @param ancestorCode 上级编码
+     * @return 是否为下级
+     */
+    public boolean isDescendant(String code, String ancestorCode) {
+        Integer index = this.indexes.get(code);
+        Integer ancestor = this.indexes.get(ancestorCode);
+        if (index == null) {
+            return false;
+        }
+        if (ancestor == null) {
+            // 上级编码不对应节点时，判断所在根节点的上级编码
+            int root = index;
+            while (this.parents[root] >= 0) {
+                root = this.parents[root];
+            }
+            return ancestorCode != null && ancestorCode.equals(this.nodes.get(root).getParentCode());
+        }
+        return ancestor < index && index < this.ends[ancestor];
+    }
+
+    /**
+     * 获取节点数量
+     *
+     * @return 节点数量
+     */
+    public int size() {
+        return this.nodes.size();
+    }
+}
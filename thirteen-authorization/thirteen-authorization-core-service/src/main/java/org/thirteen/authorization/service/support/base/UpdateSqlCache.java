@@ -0,0 +1,94 @@
+package org.thirteen.authorization.service.support.base;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * @author Aaron.Sun
+ * @description 更新语句缓存，key为非null字段的位图（位下标对应可更新字段的下标）
+ * 相同的非null字段组合复用同一条语句，避免重复拼接语句，并使Hibernate的查询计划缓存命中
+ * @date Created in 21:10 2026/10/18
+ * @modified By
+ */
+public class UpdateSqlCache {
+
+    /**
+     * 单个模型缓存的最大语句数，超出后不再缓存
+     */
+    private static final int MAX_SIZE = 256;
+    /**
+     * 所有更新语句缓存，用于查看统计信息
+     */
+    private static final Map<String, UpdateSqlCache> CACHES = new ConcurrentHashMap<>();
+
+    /** 缓存名称 */
+    private final String name;
+    private final Map<BitSet, String> cache = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    private UpdateSqlCache(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 创建更新语句缓存，并加入统计
+     *
+     * @param name 缓存名称
+     * @return 更新语句缓存
+     */
+    public static UpdateSqlCache of(String name) {
+        return CACHES.computeIfAbsent(name, UpdateSqlCache::new);
+    }
+
+    /**
+     * 获取所有更新语句缓存
+     *
+     * @return 所有更新语句缓存
+     */
+    public static Collection<UpdateSqlCache> getAll() {
+        return Collections.unmodifiableCollection(CACHES.values());
+    }
+
+    /**
+     * 获取更新语句，不存在时生成并放入缓存
+     *
+     * @param mask    非null字段的位图（放入缓存后不可再修改）
+     * @param creator 更新语句生成方法
+     * @return 更新语句
+     */
+    public String get(BitSet mask, Function<BitSet, String> creator) {
+        String sql = this.cache.get(mask);
+        if (sql != null) {
+            this.hitCount.increment();
+            return sql;
+        }
+        this.missCount.increment();
+        sql = creator.apply(mask);
+        if (this.cache.size() < MAX_SIZE) {
+            this.cache.putIfAbsent(mask, sql);
+        }
+        return sql;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
@@ -1,5 +1,6 @@
 package org.thirteen.authorization.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
@@ -14,6 +15,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Aaron.Sun
@@ -29,10 +32,18 @@ import javax.sql.DataSource;
 @EnableTransactionManagement
 public class JpaDatasourceConfig {
 
+    /**
+     * 批量写入时每批的数量
+     */
+    private static final String DEFAULT_BATCH_SIZE = "500";
+
     @Bean
     @ConfigurationProperties(prefix = "spring.datasource")
     public DataSource dataSource() {
-        return DataSourceBuilder.create().type(com.zaxxer.hikari.HikariDataSource.class).build();
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        // MySQL驱动将批量语句合并为多值语句执行
+        dataSource.addDataSourceProperty("rewriteBatchedStatements", "true");
+        return dataSource;
     }
 
     @Bean
@@ -40,7 +51,13 @@ public class JpaDatasourceConfig {
         LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
         factory.setJpaVendorAdapter(jpaVendorAdapter);
         factory.setPackagesToScan("org.thirteen.authorization.model.po");
-        factory.setJpaPropertyMap(jpaProperties.getProperties());
+        // 开启hibernate的jdbc批量写入（配置中已指定时以配置为准）
+        Map<String, String> properties = new HashMap<>(jpaProperties.getProperties());
+        properties.putIfAbsent("hibernate.jdbc.batch_size", DEFAULT_BATCH_SIZE);
+        properties.putIfAbsent("hibernate.order_inserts", "true");
+        properties.putIfAbsent("hibernate.order_updates", "true");
+        properties.putIfAbsent("hibernate.jdbc.batch_versioned_data", "true");
+        factory.setJpaPropertyMap(properties);
         factory.setDataSource(dataSource());
         return factory;
     }
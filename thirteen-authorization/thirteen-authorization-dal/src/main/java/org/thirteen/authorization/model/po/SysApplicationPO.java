@@ -8,6 +8,7 @@ import org.thirteen.authorization.model.po.base.BaseTreeSortPO;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
 /**
@@ -21,7 +22,7 @@ import javax.persistence.Table;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "sys_application")
+@Table(name = "sys_application", indexes = @Index(name = "idx_sys_application_parent_code", columnList = "parent_code"))
 @org.hibernate.annotations.Table(appliesTo = "sys_application", comment = "应用信息表")
 public class SysApplicationPO extends BaseTreeSortPO {
 
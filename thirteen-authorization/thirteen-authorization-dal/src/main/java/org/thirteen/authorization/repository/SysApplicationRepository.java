@@ -1,9 +1,14 @@
 package org.thirteen.authorization.repository;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.thirteen.authorization.model.po.SysApplicationPO;
+import org.thirteen.authorization.model.po.base.BaseDeletePO;
 import org.thirteen.authorization.repository.base.BaseRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * @author Aaron.Sun
  * @description 应用数据操作层接口
@@ -12,4 +17,18 @@ import org.thirteen.authorization.repository.base.BaseRepository;
  */
 @Repository
 public interface SysApplicationRepository extends BaseRepository<SysApplicationPO, String> {
+
+    /**
+     * 由角色编码集合获取角色关联的应用集合（按显示顺序升序，一次查询）
+     *
+     * @param roleCodes 角色编码集合
+     * @param active    启用标记
+     * @return 应用集合
+     */
+    @Query(value = "SELECT a.* FROM sys_application a WHERE a.code IN ("
+        + "SELECT ra.application_code FROM sys_role_application ra WHERE ra.role_code IN ?1) "
+        + "AND a.active = ?2 AND a.del_flag = '" + BaseDeletePO.DEL_FLAG_NORMAL + "' ORDER BY a.sort ASC",
+        nativeQuery = true)
+    List<SysApplicationPO> findAllByRoleCodeIn(Collection<String> roleCodes, String active);
+
 }
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import org.thirteen.authorization.model.po.SysDeptRolePO;
 import org.thirteen.authorization.repository.base.BaseRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,6 +27,15 @@ public interface SysDeptRoleRepository extends BaseRepository<SysDeptRolePO, Str
     @Query("delete from SysDeptRolePO where deptCode = ?1")
     void deleteByDeptCode(String deptCode);
 
+    /**
+     * 由部门编码集合删除部门角色关联
+     *
+     * @param deptCodes 部门编码集合
+     */
+    @Modifying
+    @Query("delete from SysDeptRolePO where deptCode in ?1")
+    void deleteByDeptCodeIn(Collection<String> deptCodes);
+
     /**
      * 由角色编码删除部门角色关联
      *
@@ -35,6 +45,15 @@ public interface SysDeptRoleRepository extends BaseRepository<SysDeptRolePO, Str
     @Query("delete from SysDeptRolePO where roleCode = ?1")
     void deleteByRoleCode(String roleCode);
 
+    /**
+     * 由角色编码集合删除部门角色关联
+     *
+     * @param roleCodes 角色编码集合
+     */
+    @Modifying
+    @Query("delete from SysDeptRolePO where roleCode in ?1")
+    void deleteByRoleCodeIn(Collection<String> roleCodes);
+
     /**
      * 由部门编码获取部门角色关联集合
      *
@@ -1,9 +1,14 @@
 package org.thirteen.authorization.repository;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.thirteen.authorization.model.po.SysPermissionPO;
+import org.thirteen.authorization.model.po.base.BaseDeletePO;
 import org.thirteen.authorization.repository.base.BaseRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * @author Aaron.Sun
  * @description 权限数据操作层接口
@@ -12,4 +17,17 @@ import org.thirteen.authorization.repository.base.BaseRepository;
  */
 @Repository
 public interface SysPermissionRepository extends BaseRepository<SysPermissionPO, String> {
+
+    /**
+     * 由角色编码集合获取角色关联的权限集合（一次查询）
+     *
+     * @param roleCodes 角色编码集合
+     * @param active    启用标记
+     * @return 权限集合
+     */
+    @Query(value = "SELECT p.* FROM sys_permission p WHERE p.code IN ("
+        + "SELECT rp.permission_code FROM sys_role_permission rp WHERE rp.role_code IN ?1) "
+        + "AND p.active = ?2 AND p.del_flag = '" + BaseDeletePO.DEL_FLAG_NORMAL + "'", nativeQuery = true)
+    List<SysPermissionPO> findAllByRoleCodeIn(Collection<String> roleCodes, String active);
+
 }
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import org.thirteen.authorization.model.po.SysRoleApplicationPO;
 import org.thirteen.authorization.repository.base.BaseRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,6 +27,15 @@ public interface SysRoleApplicationRepository extends BaseRepository<SysRoleAppl
     @Query("delete from SysRoleApplicationPO where roleCode = ?1")
     void deleteByRoleCode(String roleCode);
 
+    /**
+     * 由角色编码集合删除角色应用关联
+     *
+     * @param roleCodes 角色编码集合
+     */
+    @Modifying
+    @Query("delete from SysRoleApplicationPO where roleCode in ?1")
+    void deleteByRoleCodeIn(Collection<String> roleCodes);
+
     /**
      * 由应用编码删除角色应用关联
      *
@@ -35,6 +45,15 @@ public interface SysRoleApplicationRepository extends BaseRepository<SysRoleAppl
     @Query("delete from SysRoleApplicationPO where applicationCode = ?1")
     void deleteByApplicationCode(String applicationCode);
 
+    /**
+     * 由应用编码集合删除角色应用关联
+     *
+     * @param applicationCodes 应用编码集合
+     */
+    @Modifying
+    @Query("delete from SysRoleApplicationPO where applicationCode in ?1")
+    void deleteByApplicationCodeIn(Collection<String> applicationCodes);
+
     /**
      * 由角色编码集合获取角色下的应用信息集合
      *
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import org.thirteen.authorization.model.po.SysRolePermissionPO;
 import org.thirteen.authorization.repository.base.BaseRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,6 +27,15 @@ public interface SysRolePermissionRepository extends BaseRepository<SysRolePermi
     @Query("delete from SysRolePermissionPO where roleCode = ?1")
     void deleteByRoleCode(String roleCode);
 
+    /**
+     * 由角色编码集合删除角色权限关联
+     *
+     * @param roleCodes 角色编码集合
+     */
+    @Modifying
+    @Query("delete from SysRolePermissionPO where roleCode in ?1")
+    void deleteByRoleCodeIn(Collection<String> roleCodes);
+
     /**
      * 由权限编码删除角色权限关联
      *
@@ -35,6 +45,15 @@ public interface SysRolePermissionRepository extends BaseRepository<SysRolePermi
     @Query("delete from SysRolePermissionPO where permissionCode = ?1")
     void deleteByPermissionCode(String permissionCode);
 
+    /**
+     * 由权限编码集合删除角色权限关联
+     *
+     * @param permissionCodes 权限编码集合
+     */
+    @Modifying
+    @Query("delete from SysRolePermissionPO where permissionCode in ?1")
+    void deleteByPermissionCodeIn(Collection<String> permissionCodes);
+
     /**
      * 由角色编码集合获取角色下的权限信息集合
      *
@@ -1,9 +1,13 @@
 package org.thirteen.authorization.repository;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.thirteen.authorization.model.po.SysRolePO;
+import org.thirteen.authorization.model.po.base.BaseDeletePO;
 import org.thirteen.authorization.repository.base.BaseRepository;
 
+import java.util.List;
+
 /**
  * @author Aaron.Sun
  * @description 角色数据操作层接口
@@ -12,4 +16,19 @@ import org.thirteen.authorization.repository.base.BaseRepository;
  */
 @Repository
 public interface SysRoleRepository extends BaseRepository<SysRolePO, String> {
+
+    /**
+     * 由用户账号及其所属部门编码获取用户拥有的角色集合（用户角色关联与部门角色关联的并集，一次查询）
+     *
+     * @param account  用户账号
+     * @param deptCode 用户所属部门编码
+     * @param active   启用标记
+     * @return 角色集合
+     */
+    @Query(value = "SELECT r.* FROM sys_role r WHERE r.code IN ("
+        + "SELECT ur.role_code FROM sys_user_role ur WHERE ur.account = ?1 "
+        + "UNION SELECT dr.role_code FROM sys_dept_role dr WHERE dr.dept_code = ?2) "
+        + "AND r.active = ?3 AND r.del_flag = '" + BaseDeletePO.DEL_FLAG_NORMAL + "'", nativeQuery = true)
+    List<SysRolePO> findAllByUserAndDept(String account, String deptCode, String active);
+
 }
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import org.thirteen.authorization.model.po.SysUserRolePO;
 import org.thirteen.authorization.repository.base.BaseRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,6 +27,15 @@ public interface SysUserRoleRepository extends BaseRepository<SysUserRolePO, Str
     @Query("delete from SysUserRolePO where account = ?1")
     void deleteByAccount(String account);
 
+    /**
+     * 由用户账号集合删除用户角色关联
+     *
+     * @param accounts 用户账号集合
+     */
+    @Modifying
+    @Query("delete from SysUserRolePO where account in ?1")
+    void deleteByAccountIn(Collection<String> accounts);
+
     /**
      * 由角色编码删除用户角色关联
      *
@@ -35,6 +45,15 @@ public interface SysUserRoleRepository extends BaseRepository<SysUserRolePO, Str
     @Query("delete from SysUserRolePO where roleCode = ?1")
     void deleteByRoleCode(String roleCode);
 
+    /**
+     * 由角色编码集合删除用户角色关联
+     *
+     * @param roleCodes 角色编码集合
+     */
+    @Modifying
+    @Query("delete from SysUserRolePO where roleCode in ?1")
+    void deleteByRoleCodeIn(Collection<String> roleCodes);
+
     /**
      * 由用户账号获取用户角色关联集合
      *
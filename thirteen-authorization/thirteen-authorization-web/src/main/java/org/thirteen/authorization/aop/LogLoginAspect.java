@@ -10,10 +10,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.thirteen.authorization.aop.support.AuditLogPipeline;
 import org.thirteen.authorization.common.utils.StringUtil;
 import org.thirteen.authorization.common.utils.WebUtil;
 import org.thirteen.authorization.model.vo.SysLogLoginVO;
-import org.thirteen.authorization.service.SysLogLoginService;
 import org.thirteen.authorization.web.ResponseResult;
 
 import javax.servlet.http.HttpServletRequest;
@@ -23,6 +23,7 @@ import java.time.LocalDateTime;
 /**
  * @author Aaron.Sun
  * @description 配置登录日志的切面，输出日志到控制台或存储到数据库
+ * 日志放入写入管道后由写入线程批量存储，请求不等待日志写入数据库
  * @date Created in 2020/2/26 17:52
  * @modified by
  */
@@ -31,14 +32,14 @@ import java.time.LocalDateTime;
 public class LogLoginAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(LogLoginAspect.class);
-    private final SysLogLoginService sysLogLoginService;
+    private final AuditLogPipeline<SysLogLoginVO> logLoginPipeline;
     private final DatabaseReader databaseReader;
     private final HttpServletRequest request;
 
     @Autowired
-    public LogLoginAspect(SysLogLoginService sysLogLoginService, DatabaseReader databaseReader,
+    public LogLoginAspect(AuditLogPipeline<SysLogLoginVO> logLoginPipeline, DatabaseReader databaseReader,
                           HttpServletRequest request) {
-        this.sysLogLoginService = sysLogLoginService;
+        this.logLoginPipeline = logLoginPipeline;
         this.databaseReader = databaseReader;
         this.request = request;
     }
@@ -92,9 +93,9 @@ public class LogLoginAspect {
             logLogin.setProvince("未知");
             logLogin.setCity("未知");
         }
-        // 记录日志到数据库
+        // 记录日志到数据库（异步批量写入）
         try {
-            this.sysLogLoginService.insert(logLogin);
+            this.logLoginPipeline.offer(logLogin);
         } catch (Exception e) {
             logger.error(String.format("记录登录日志失败，%s", e.getMessage()), e);
         }
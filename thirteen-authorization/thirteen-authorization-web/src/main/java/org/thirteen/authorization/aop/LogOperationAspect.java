@@ -1,29 +1,37 @@
 package org.thirteen.authorization.aop;
 
 import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.thirteen.authorization.aop.support.AuditLogPipeline;
 import org.thirteen.authorization.common.utils.JsonUtil;
 import org.thirteen.authorization.common.utils.JwtUtil;
 import org.thirteen.authorization.common.utils.StringUtil;
 import org.thirteen.authorization.common.utils.WebUtil;
 import org.thirteen.authorization.model.vo.SysLogOperationVO;
-import org.thirteen.authorization.service.SysLogOperationService;
 import org.thirteen.authorization.web.ResponseResult;
 
 import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Aaron.Sun
  * @description 配置操作日志的切面，输出日志到控制台或存储到数据库
+ * 日志放入写入管道后由写入线程批量存储，请求不等待日志写入数据库
+ * 方法的操作类型及描述按目标类及方法缓存，只在首次执行时通过反射解析
  * @date Created in 18:53 2020/3/2
  * @modified By
  */
@@ -32,12 +40,16 @@ import java.time.LocalDateTime;
 public class LogOperationAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(LogOperationAspect.class);
-    private final SysLogOperationService sysLogOperationService;
+    /** 参数及结果的最大长度，与数据库字段长度一致 */
+    private static final int MAX_JSON_LENGTH = 1000;
+    private final AuditLogPipeline<SysLogOperationVO> logOperationPipeline;
     private final HttpServletRequest request;
+    /** key为目标类，value为方法对应的操作日志信息 */
+    private final Map<Class<?>, Map<Method, OperationMetadata>> metadataCache = new ConcurrentHashMap<>();
 
     @Autowired
-    public LogOperationAspect(SysLogOperationService sysLogOperationService, HttpServletRequest request) {
-        this.sysLogOperationService = sysLogOperationService;
+    public LogOperationAspect(AuditLogPipeline<SysLogOperationVO> logOperationPipeline, HttpServletRequest request) {
+        this.logOperationPipeline = logOperationPipeline;
         this.request = request;
     }
 
@@ -63,55 +75,21 @@ public class LogOperationAspect {
     public Object doAround(ProceedingJoinPoint joinPoint) throws Throwable {
         logger.debug("=====开始执行操作环绕通知=====");
         SysLogOperationVO logOperation = new SysLogOperationVO();
-        // 目标类名
-        String targetName = joinPoint.getTarget().getClass().getName();
-        // 方法名
-        String methodName = joinPoint.getSignature().getName();
+        // 目标类
+        Class<?> targetClass = ClassUtils.getUserClass(joinPoint.getTarget());
+        // 当前执行方法
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
         // 参数
         Object[] arguments = joinPoint.getArgs();
-        // 目标类标识
-        String targetTags = "";
-        // 操作类型
-        String operationValue = "";
-        // 操作描述
-        String operationNotes = "";
-        // 操作标识
-        String operationTags = "";
+        // 当前执行方法的说明及描述（每个方法只解析一次）
+        OperationMetadata metadata = this.metadataCache.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(method, key -> OperationMetadata.of(targetClass, method));
         // 请求来源IP地址
         logOperation.setRequestPath(WebUtil.getIpAddr(this.request));
         // 当前用户编码
         logOperation.setAccount(JwtUtil.getAccount());
         // 当前应用编码
         logOperation.setApplicationCode(null);
-        // 通过java反射机制获取当前执行方法的说明及描述
-        try {
-            // 目标类
-            Class<?> targetClass = Class.forName(targetName);
-            // 目标类注解
-            Api api = targetClass.getAnnotation(io.swagger.annotations.Api.class);
-            // 目标类标识
-            targetTags = api.tags()[0];
-            // 目标类中所有方法
-            Method[] methods = targetClass.getMethods();
-            for (Method method : methods) {
-                if (method.getName().equals(methodName)) {
-                    Class<?>[] clazzs = method.getParameterTypes();
-                    if (clazzs.length == arguments.length) {
-                        operationValue = method.getAnnotation(io.swagger.annotations.ApiOperation.class).value();
-                        operationNotes = method.getAnnotation(io.swagger.annotations.ApiOperation.class).notes();
-                        operationTags = method.getAnnotation(io.swagger.annotations.ApiOperation.class).tags()[0];
-                        if (StringUtil.isNotEmpty(operationTags)) {
-                            targetTags = operationTags;
-                        }
-                        break;
-                    }
-                }
-            }
-        } catch (ClassNotFoundException e) {
-            // 记录本地异常日志
-            logger.error(String.format("获取当前执行方法信息失败，异常方法:%s 异常代码:%s 异常信息:%s",
-                targetName + "." + methodName, e.getClass().getName(), e.getMessage()), e);
-        }
         // 执行被拦截方法
         ResponseResult<?> result;
         // 记录方法执行的开始时间
@@ -125,14 +103,16 @@ public class LogOperationAspect {
         logOperation.setMessage(result.getMessage());
         // 记录方法执行的结束时间
         logOperation.setEndTime(LocalDateTime.now());
-        logOperation.setOperationValue(targetTags + "-" + operationValue);
-        logOperation.setOperationNotes(operationNotes);
-        logOperation.setMethod(targetName + "." + methodName + "()");
-        logOperation.setArguments(JsonUtil.toJsonString(arguments));
-        logOperation.setResult(JsonUtil.toJsonString(result));
-        // 记录日志到数据库
+        logOperation.setOperationValue(metadata.operationValue);
+        logOperation.setOperationNotes(metadata.operationNotes);
+        logOperation.setMethod(metadata.method);
+        // 记录日志到数据库（异步批量写入），参数及返回值在写入前才序列化，超出字段长度的部分不序列化
+        ResponseResult<?> logResult = result;
         try {
-            this.sysLogOperationService.insert(logOperation);
+            this.logOperationPipeline.offer(logOperation, item -> {
+                item.setArguments(JsonUtil.toJsonString(arguments, MAX_JSON_LENGTH));
+                item.setResult(JsonUtil.toJsonString(logResult, MAX_JSON_LENGTH));
+            });
         } catch (Exception e) {
             logger.error("新增操作日志失败", e);
             logger.error(String.format("日志内容：%s", JsonUtil.toJsonString(logOperation)));
@@ -140,4 +120,45 @@ public class LogOperationAspect {
         return result;
     }
 
+    /**
+     * 方法的操作日志信息，由目标类的Api注解及方法的ApiOperation注解解析
+     */
+    private static class OperationMetadata {
+        /** 操作类型（目标类标识-操作类型） */
+        private final String operationValue;
+        /** 操作描述 */
+        private final String operationNotes;
+        /** 方法全名 */
+        private final String method;
+
+        private OperationMetadata(String operationValue, String operationNotes, String method) {
+            this.operationValue = operationValue;
+            this.operationNotes = operationNotes;
+            this.method = method;
+        }
+
+        private static OperationMetadata of(Class<?> targetClass, Method method) {
+            // 目标类标识
+            String targetTags = "";
+            Api api = AnnotationUtils.findAnnotation(targetClass, Api.class);
+            if (api != null && api.tags().length > 0) {
+                targetTags = api.tags()[0];
+            }
+            // 继承的方法由目标类中的实现方法获取注解
+            ApiOperation operation = AnnotationUtils.findAnnotation(
+                ClassUtils.getMostSpecificMethod(method, targetClass), ApiOperation.class);
+            String operationValue = "";
+            String operationNotes = "";
+            if (operation != null) {
+                operationValue = operation.value();
+                operationNotes = operation.notes();
+                if (operation.tags().length > 0 && StringUtil.isNotEmpty(operation.tags()[0])) {
+                    targetTags = operation.tags()[0];
+                }
+            }
+            return new OperationMetadata(targetTags + "-" + operationValue, operationNotes,
+                targetClass.getName() + "." + method.getName() + "()");
+        }
+    }
+
 }
@@ -0,0 +1,612 @@
+package org.thirteen.authorization.aop.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * @author Aaron.Sun
+ * @description 审计日志写入管道，请求线程只将日志放入有界的无锁队列，由写入线程批量写入数据库
+ * 写入线程在日志数量达到批量大小，或第一条日志等待超过刷新间隔时写入一批，队列为空时休眠，由放入日志的线程唤醒；
+ * 队列满时按溢出策略处理：阻塞等待、丢弃并计数、或写入本地溢出文件（启动时及写入恢复后定时重新写入数据库）；
+ * 写入溢出文件时请求线程只将日志放入同样容量的溢出队列，由单独的溢出线程补全并追加到保持打开的溢出文件，
+ * 不受数据库写入耗时影响，溢出队列也满时丢弃并计数；
+ * 批量写入失败时逐条重新写入，仍失败的日志丢弃并计数，避免一条有问题的日志导致整批日志反复写入失败；
+ * 开始的若干条均失败时视为数据库不可用，整批按写入失败处理（写入溢出文件或丢弃并计数）；
+ * 关闭时停止接收日志，等待写入线程写完队列中剩余的日志
+ * 放入日志时可指定补全方法（如序列化参数及返回值），在写入或溢出前由写入线程执行，被丢弃的日志不执行
+ * @date Created in 10:10 2026/10/18
+ * @modified By
+ */
+public class AuditLogPipeline<T extends Serializable> implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogPipeline.class);
+
+    /**
+     * 溢出策略：阻塞等待队列有空位
+     */
+    public static final String OVERFLOW_BLOCK = "block";
+    /**
+     * 溢出策略：丢弃并计数
+     */
+    public static final String OVERFLOW_DROP = "drop";
+    /**
+     * 溢出策略：写入本地溢出文件
+     */
+    public static final String OVERFLOW_SPILL = "spill";
+    /**
+     * 溢出策略为block时，等待空位的休眠时间（纳秒）
+     */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /**
+     * 逐条重新写入时，开始的连续失败数达到该值则视为数据库不可用，不再逐条写入
+     */
+    private static final int MAX_LEADING_FAILURES = 3;
+    /**
+     * 溢出文件中允许反序列化的类
+     */
+    private static final ObjectInputFilter SPILL_FILTER = info -> {
+        Class<?> clazz = info.serialClass();
+        if (clazz == null || clazz.isPrimitive() || clazz.getName().startsWith("java.")
+            || clazz.getName().startsWith("org.thirteen.authorization.")) {
+            return ObjectInputFilter.Status.UNDECIDED;
+        }
+        return ObjectInputFilter.Status.REJECTED;
+    };
+
+    /** 管道名称 */
+    private final String name;
+    /** 日志类型 */
+    private final Class<T> type;
+    /** 批量写入方法 */
+    private final Consumer<List<T>> writer;
+    /** 队列容量 */
+    private final int capacity;
+    /** 批量大小 */
+    private final int batchSize;
+    /** 刷新间隔（纳秒） */
+    private final long flushIntervalNanos;
+    /** 关闭时等待写入的最长时间（毫秒） */
+    private final long shutdownTimeout;
+    /** 溢出策略 */
+    private final String overflowPolicy;
+    /** 溢出文件，溢出策略不为spill时为null */
+    private final Path spillFile;
+
+    private final Queue<Pending<T>> queue = new ConcurrentLinkedQueue<>();
+    /** 队列中的日志数量（包含已占用空位但尚未放入的日志） */
+    private final AtomicInteger size = new AtomicInteger();
+    /** 待写入溢出文件的日志 */
+    private final Queue<Pending<T>> overflow = new ConcurrentLinkedQueue<>();
+    /** 溢出队列中的日志数量（包含已占用空位但尚未放入的日志） */
+    private final AtomicInteger overflowSize = new AtomicInteger();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder spilledCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final List<Thread> threads = new ArrayList<>();
+    /** 溢出线程，溢出策略不为spill时为null */
+    private final Thread spillThread;
+    /** 定时重新写入溢出日志的执行器，溢出策略不为spill时为null */
+    private final ScheduledExecutorService replayExecutor;
+    /** 休眠中等待日志的写入线程 */
+    private final Queue<Thread> idleThreads = new ConcurrentLinkedQueue<>();
+    private final Object spillLock = new Object();
+    /** 溢出文件的写入流，首次溢出时打开，关闭或重新写入溢出日志时关闭 */
+    private BufferedWriter spillWriter;
+    private volatile boolean closed;
+    /** 最近一次写入是否成功，写入失败期间不重新写入溢出日志 */
+    private volatile boolean writable = true;
+
+    /**
+     * 创建并启动写入线程
+     *
+     * @param name            管道名称，用于线程名及溢出文件名
+     * @param type            日志类型
+     * @param writer          批量写入方法（在写入线程中执行）
+     * @param capacity        队列容量
+     * @param batchSize       批量大小
+     * @param flushInterval   刷新间隔（毫秒）
+     * @param writerThreads   写入线程数
+     * @param shutdownTimeout 关闭时等待写入的最长时间（毫秒）
+     * @param overflowPolicy  溢出策略
+     * @param spillDir        溢出文件目录，溢出策略为spill时必须
+     * @param replayInterval  重新写入溢出日志的检查间隔（毫秒），溢出策略为spill时必须大于0
+     */
+    public AuditLogPipeline(String name, Class<T> type, Consumer<List<T>> writer, int capacity, int batchSize,
+                            long flushInterval, int writerThreads, long shutdownTimeout, String overflowPolicy,
+                            String spillDir, long replayInterval) {
+        Assert.isTrue(capacity > 0 && batchSize > 0 && flushInterval > 0 && writerThreads > 0,
+            "审计日志管道的队列容量、批量大小、刷新间隔及写入线程数必须大于0");
+        Assert.isTrue(OVERFLOW_BLOCK.equals(overflowPolicy) || OVERFLOW_DROP.equals(overflowPolicy)
+            || OVERFLOW_SPILL.equals(overflowPolicy), "非法溢出策略 " + overflowPolicy);
+        this.name = name;
+        this.type = type;
+        this.writer = writer;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+        this.shutdownTimeout = shutdownTimeout;
+        this.overflowPolicy = overflowPolicy;
+        if (OVERFLOW_SPILL.equals(overflowPolicy)) {
+            Assert.hasText(spillDir, "溢出策略为spill时必须配置溢出文件目录 audit-log.spill-dir");
+            Assert.isTrue(replayInterval > 0, "溢出策略为spill时重新写入溢出日志的检查间隔必须大于0");
+            this.spillFile = Path.of(spillDir, name + ".spill");
+        } else {
+            this.spillFile = null;
+        }
+        if (this.spillFile != null) {
+            this.spillThread = new Thread(this::runSpill, "audit-log-" + name + "-spill");
+            this.spillThread.setDaemon(true);
+            this.replayExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "audit-log-" + name + "-replay");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.spillThread = null;
+            this.replayExecutor = null;
+        }
+        for (int i = 0; i < writerThreads; i++) {
+            Thread thread = new Thread(this::run, "audit-log-" + name + "-" + i);
+            thread.setDaemon(true);
+            this.threads.add(thread);
+        }
+        this.threads.forEach(Thread::start);
+        if (this.spillThread != null) {
+            this.spillThread.start();
+            // 启动时立即重新写入上次溢出的日志，之后定时检查，写入恢复后重新写入期间溢出的日志
+            this.replayExecutor.scheduleWithFixedDelay(this::replay, 0, replayInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 放入日志，不等待写入数据库
+     *
+     * @param model 日志
+     */
+    public void offer(T model) {
+        this.offer(model, null);
+    }
+
+    /**
+     * 放入日志，不等待写入数据库
+     *
+     * @param model     日志
+     * @param completer 补全方法，在写入或溢出前执行，可为null
+     */
+    public void offer(T model, Consumer<T> completer) {
+        if (model == null) {
+            return;
+        }
+        Pending<T> pending = new Pending<>(model, completer);
+        // 已关闭时直接写入
+        if (this.closed) {
+            this.write(this.complete(Collections.singletonList(pending)));
+            return;
+        }
+        if (reserve(this.size, this.capacity)) {
+            this.queue.offer(pending);
+            this.signal();
+            return;
+        }
+        switch (this.overflowPolicy) {
+            case OVERFLOW_BLOCK:
+                while (!reserve(this.size, this.capacity)) {
+                    if (this.closed) {
+                        this.write(this.complete(Collections.singletonList(pending)));
+                        return;
+                    }
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                this.queue.offer(pending);
+                this.signal();
+                break;
+            case OVERFLOW_SPILL:
+                // 补全及写入溢出文件由溢出线程执行
+                if (reserve(this.overflowSize, this.capacity)) {
+                    this.overflow.offer(pending);
+                    LockSupport.unpark(this.spillThread);
+                } else {
+                    this.drop();
+                }
+                break;
+            default:
+                this.drop();
+        }
+    }
+
+    /**
+     * 获取队列中的日志数量
+     *
+     * @return 日志数量
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getDroppedCount() {
+        return this.droppedCount.sum();
+    }
+
+    public long getSpilledCount() {
+        return this.spilledCount.sum();
+    }
+
+    public long getFailedCount() {
+        return this.failedCount.sum();
+    }
+
+    /**
+     * 停止接收日志，等待写入线程写完队列中剩余的日志，超时后剩余的日志按写入失败处理
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        this.closed = true;
+        if (this.replayExecutor != null) {
+            // 未重新写入的溢出日志保留在溢出文件中，下次启动时重新写入
+            this.replayExecutor.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + this.shutdownTimeout;
+        for (Thread thread : this.threads) {
+            LockSupport.unpark(thread);
+            thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        List<Pending<T>> rest = new ArrayList<>();
+        for (Pending<T> pending = this.queue.poll(); pending != null; pending = this.queue.poll()) {
+            rest.add(pending);
+        }
+        if (!rest.isEmpty()) {
+            logger.warn("audit log pipeline [{}] shutdown timeout, {} logs left", this.name, rest.size());
+            this.handleFailure(this.complete(rest));
+        }
+        if (this.spillThread != null) {
+            LockSupport.unpark(this.spillThread);
+            this.spillThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            this.spillOverflow();
+            synchronized (this.spillLock) {
+                this.closeSpillWriter();
+            }
+        }
+    }
+
+    /**
+     * 占用一个空位（CAS，无锁）
+     */
+    private static boolean reserve(AtomicInteger size, int capacity) {
+        for (int current = size.get(); current < capacity; current = size.get()) {
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 丢弃日志并计数
+     */
+    private void drop() {
+        this.droppedCount.increment();
+        long dropped = this.droppedCount.sum();
+        // 避免持续溢出时输出过多日志
+        if (dropped == 1 || dropped % 1000 == 0) {
+            logger.warn("audit log pipeline [{}] is full, dropped：{}", this.name, dropped);
+        }
+    }
+
+    /**
+     * 唤醒一个休眠中的写入线程（放入日志后执行）
+     */
+    private void signal() {
+        if (!this.idleThreads.isEmpty()) {
+            Thread thread = this.idleThreads.poll();
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * 写入线程休眠，直到放入日志、关闭或到达截止时间时被唤醒
+     *
+     * @param timed    是否有截止时间
+     * @param deadline 截止时间（System.nanoTime）
+     */
+    private void await(boolean timed, long deadline) {
+        Thread current = Thread.currentThread();
+        this.idleThreads.offer(current);
+        // 登记后再次检查队列，避免放入日志的线程在登记前唤醒而错过
+        if (this.queue.isEmpty() && !this.closed) {
+            if (timed) {
+                LockSupport.parkNanos(this, deadline - System.nanoTime());
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        this.idleThreads.remove(current);
+    }
+
+    /**
+     * 写入线程：批量取出日志写入，达到批量大小或第一条日志等待超过刷新间隔时写入
+     */
+    private void run() {
+        List<Pending<T>> batch = new ArrayList<>(this.batchSize);
+        long deadline = 0;
+        while (true) {
+            Pending<T> pending = this.queue.poll();
+            if (pending != null) {
+                this.size.decrementAndGet();
+                if (batch.isEmpty()) {
+                    deadline = System.nanoTime() + this.flushIntervalNanos;
+                }
+                batch.add(pending);
+                if (batch.size() < this.batchSize) {
+                    continue;
+                }
+            } else if (batch.isEmpty()) {
+                // 队列为空时，已关闭则退出，否则休眠直到放入日志
+                if (this.closed && this.size.get() == 0) {
+                    return;
+                }
+                this.await(false, 0);
+                continue;
+            } else if (!this.closed && System.nanoTime() < deadline) {
+                this.await(true, deadline);
+                continue;
+            }
+            this.write(this.complete(batch));
+            batch = new ArrayList<>(this.batchSize);
+        }
+    }
+
+    /**
+     * 执行日志的补全方法，补全失败时仍写入日志
+     */
+    private List<T> complete(List<Pending<T>> batch) {
+        List<T> models = new ArrayList<>(batch.size());
+        for (Pending<T> pending : batch) {
+            if (pending.completer != null) {
+                try {
+                    pending.completer.accept(pending.model);
+                } catch (Exception e) {
+                    logger.error(String.format("audit log pipeline [%s] complete log error", this.name), e);
+                }
+            }
+            models.add(pending.model);
+        }
+        return models;
+    }
+
+    private void write(List<T> batch) {
+        try {
+            this.writer.accept(batch);
+            this.writable = true;
+            return;
+        } catch (Exception e) {
+            logger.error(String.format("audit log pipeline [%s] write %d logs error", this.name, batch.size()), e);
+        }
+        if (batch.size() == 1) {
+            this.writable = false;
+            this.handleFailure(batch);
+            return;
+        }
+        // 逐条重新写入，找出写入失败的日志
+        List<T> failed = new ArrayList<>();
+        boolean written = false;
+        for (int i = 0; i < batch.size(); i++) {
+            T model = batch.get(i);
+            try {
+                this.writer.accept(Collections.singletonList(model));
+                written = true;
+            } catch (Exception e) {
+                failed.add(model);
+                if (!written && failed.size() >= MAX_LEADING_FAILURES) {
+                    failed.addAll(batch.subList(i + 1, batch.size()));
+                    break;
+                }
+            }
+        }
+        this.writable = written;
+        if (!written) {
+            // 全部失败时视为数据库不可用
+            this.handleFailure(failed);
+        } else if (!failed.isEmpty()) {
+            logger.error("audit log pipeline [{}] discard {} logs which failed to write one by one", this.name,
+                failed.size());
+            this.failedCount.add(failed.size());
+        }
+    }
+
+    /**
+     * 写入失败的日志，溢出策略为spill时写入溢出文件，否则丢弃并计数
+     */
+    private void handleFailure(List<T> batch) {
+        if (this.spillFile != null) {
+            this.spill(batch);
+        } else {
+            this.failedCount.add(batch.size());
+        }
+    }
+
+    /**
+     * 溢出线程：补全溢出队列中的日志并写入溢出文件，溢出队列为空时休眠，由放入日志的线程唤醒
+     */
+    private void runSpill() {
+        while (!this.closed || this.overflowSize.get() > 0) {
+            if (this.overflow.isEmpty()) {
+                // 唤醒许可不会丢失，放入日志的线程先于休眠唤醒时park立即返回
+                LockSupport.park(this);
+                continue;
+            }
+            this.spillOverflow();
+        }
+    }
+
+    /**
+     * 补全溢出队列中的日志并写入溢出文件
+     */
+    private void spillOverflow() {
+        List<Pending<T>> batch = new ArrayList<>();
+        for (Pending<T> pending = this.overflow.poll(); pending != null; pending = this.overflow.poll()) {
+            this.overflowSize.decrementAndGet();
+            batch.add(pending);
+        }
+        if (!batch.isEmpty()) {
+            this.spill(this.complete(batch));
+        }
+    }
+
+    /**
+     * 写入溢出文件，每行为一条日志序列化后的Base64字符串
+     */
+    private void spill(List<T> batch) {
+        try {
+            // 在锁外序列化，只在写入文件时加锁
+            List<String> lines = new ArrayList<>(batch.size());
+            for (T model : batch) {
+                lines.add(serialize(model));
+            }
+            synchronized (this.spillLock) {
+                if (this.spillWriter == null) {
+                    Files.createDirectories(this.spillFile.getParent());
+                    this.spillWriter = Files.newBufferedWriter(this.spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                try {
+                    for (String line : lines) {
+                        this.spillWriter.write(line);
+                        this.spillWriter.newLine();
+                    }
+                    this.spillWriter.flush();
+                } catch (IOException e) {
+                    // 写入失败时关闭写入流，下次溢出时重新打开
+                    this.closeSpillWriter();
+                    throw e;
+                }
+            }
+            this.spilledCount.add(batch.size());
+        } catch (IOException e) {
+            logger.error(String.format("audit log pipeline [%s] spill %d logs error", this.name, batch.size()), e);
+            this.failedCount.add(batch.size());
+        }
+    }
+
+    /**
+     * 关闭溢出文件的写入流（持有spillLock时执行）
+     */
+    private void closeSpillWriter() {
+        if (this.spillWriter != null) {
+            try {
+                this.spillWriter.close();
+            } catch (IOException e) {
+                logger.error(String.format("audit log pipeline [%s] close spill file error", this.name), e);
+            }
+            this.spillWriter = null;
+        }
+    }
+
+    /**
+     * 重新写入溢出的日志（在重新写入线程中定时执行），写入失败的日志再次写入溢出文件
+     * 最近一次写入失败时不执行，等待写入线程写入成功后再重新写入
+     */
+    private void replay() {
+        if (this.closed || !this.writable || !Files.exists(this.spillFile)) {
+            return;
+        }
+        Path replayFile = this.spillFile.resolveSibling(this.spillFile.getFileName() + ".replay");
+        try {
+            synchronized (this.spillLock) {
+                this.closeSpillWriter();
+                Files.move(this.spillFile, replayFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            int count = 0;
+            try (BufferedReader in = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+                List<T> batch = new ArrayList<>(this.batchSize);
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    T model = this.deserialize(line);
+                    if (model == null) {
+                        continue;
+                    }
+                    batch.add(model);
+                    if (batch.size() == this.batchSize) {
+                        this.write(batch);
+                        count += batch.size();
+                        batch = new ArrayList<>(this.batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    this.write(batch);
+                    count += batch.size();
+                }
+            }
+            Files.delete(replayFile);
+            logger.info("audit log pipeline [{}] replayed {} spilled logs", this.name, count);
+        } catch (IOException e) {
+            logger.error(String.format("audit log pipeline [%s] replay spilled logs error", this.name), e);
+        }
+    }
+
+    private static String serialize(Serializable model) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(model);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    private T deserialize(String line) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(line)))) {
+            in.setObjectInputFilter(SPILL_FILTER);
+            Object model = in.readObject();
+            return this.type.isInstance(model) ? this.type.cast(model) : null;
+        } catch (IOException | ClassNotFoundException | IllegalArgumentException e) {
+            logger.error(String.format("audit log pipeline [%s] skip invalid spilled log", this.name), e);
+            return null;
+        }
+    }
+
+    /**
+     * 待写入的日志及其补全方法
+     */
+    private static class Pending<T> {
+        private final T model;
+        private final Consumer<T> completer;
+
+        private Pending(T model, Consumer<T> completer) {
+            this.model = model;
+            this.completer = completer;
+        }
+    }
+}
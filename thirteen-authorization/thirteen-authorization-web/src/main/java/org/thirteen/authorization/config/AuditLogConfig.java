@@ -0,0 +1,72 @@
+package org.thirteen.authorization.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.thirteen.authorization.aop.support.AuditLogPipeline;
+import org.thirteen.authorization.model.vo.SysLogLoginVO;
+import org.thirteen.authorization.model.vo.SysLogOperationVO;
+import org.thirteen.authorization.service.SysLogLoginService;
+import org.thirteen.authorization.service.SysLogOperationService;
+
+/**
+ * @author Aaron.Sun
+ * @description 审计日志（操作日志及登录日志）写入管道配置
+ * @date Created in 10:40 2026/10/18
+ * @modified By
+ */
+@Configuration
+public class AuditLogConfig {
+
+    /** 队列容量 */
+    @Value("${audit-log.capacity:8192}")
+    private Integer capacity;
+    /** 批量大小 */
+    @Value("${audit-log.batch-size:200}")
+    private Integer batchSize;
+    /** 刷新间隔（毫秒） */
+    @Value("${audit-log.flush-interval:500}")
+    private Long flushInterval;
+    /** 每个管道的写入线程数 */
+    @Value("${audit-log.writer-threads:1}")
+    private Integer writerThreads;
+    /** 关闭时等待写入的最长时间（毫秒） */
+    @Value("${audit-log.shutdown-timeout:10000}")
+    private Long shutdownTimeout;
+    /** 溢出策略：block、drop、spill */
+    @Value("${audit-log.overflow-policy:spill}")
+    private String overflowPolicy;
+    /** 溢出文件目录，溢出策略为spill时必须配置（不使用临时目录，避免重启后丢失） */
+    @Value("${audit-log.spill-dir:}")
+    private String spillDir;
+    /** 重新写入溢出日志的检查间隔（毫秒） */
+    @Value("${audit-log.replay-interval:60000}")
+    private Long replayInterval;
+
+    /**
+     * 操作日志写入管道
+     *
+     * @param sysLogOperationService 操作日志服务
+     * @return 操作日志写入管道
+     */
+    @Bean
+    public AuditLogPipeline<SysLogOperationVO> logOperationPipeline(SysLogOperationService sysLogOperationService) {
+        return new AuditLogPipeline<>("operation", SysLogOperationVO.class, sysLogOperationService::insertAll,
+            this.capacity, this.batchSize, this.flushInterval, this.writerThreads, this.shutdownTimeout,
+            this.overflowPolicy, this.spillDir, this.replayInterval);
+    }
+
+    /**
+     * 登录日志写入管道
+     *
+     * @param sysLogLoginService 登录日志服务
+     * @return 登录日志写入管道
+     */
+    @Bean
+    public AuditLogPipeline<SysLogLoginVO> logLoginPipeline(SysLogLoginService sysLogLoginService) {
+        return new AuditLogPipeline<>("login", SysLogLoginVO.class, sysLogLoginService::insertAll,
+            this.capacity, this.batchSize, this.flushInterval, this.writerThreads, this.shutdownTimeout,
+            this.overflowPolicy, this.spillDir, this.replayInterval);
+    }
+
+}
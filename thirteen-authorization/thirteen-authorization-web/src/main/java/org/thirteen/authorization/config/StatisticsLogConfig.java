@@ -0,0 +1,88 @@
+package org.thirteen.authorization.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.thirteen.authorization.aop.support.AuditLogPipeline;
+import org.thirteen.authorization.service.support.base.CriteriaCompiler;
+import org.thirteen.authorization.service.support.base.UpdateSqlCache;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Aaron.Sun
+ * @description 统计信息日志配置，定时输出更新语句缓存及条件编译器的命中统计，以及审计日志写入管道的丢弃、溢出及写入失败数
+ * 只输出有过访问的缓存，间隔小于等于0时不输出
+ * @date Created in 09:30 2026/10/18
+ * @modified By
+ */
+@Configuration
+public class StatisticsLogConfig implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsLogConfig.class);
+
+    /** 输出间隔（毫秒） */
+    @Value("${statistics-log-interval:300000}")
+    private Long interval;
+    /** 审计日志写入管道 */
+    private final List<AuditLogPipeline<?>> auditLogPipelines;
+    /** 定时输出统计信息的执行器 */
+    private ScheduledExecutorService executor;
+
+    public StatisticsLogConfig(List<AuditLogPipeline<?>> auditLogPipelines) {
+        this.auditLogPipelines = auditLogPipelines;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (this.interval <= 0) {
+            return;
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statistics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::log, this.interval, this.interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * 输出统计信息
+     */
+    public void log() {
+        try {
+            for (UpdateSqlCache cache : UpdateSqlCache.getAll()) {
+                if (cache.getHitCount() + cache.getMissCount() > 0) {
+                    logger.info("update sql cache [{}] size：{}，hit：{}，miss：{}", cache.getName(), cache.size(),
+                        cache.getHitCount(), cache.getMissCount());
+                }
+            }
+            for (CriteriaCompiler compiler : CriteriaCompiler.getAll()) {
+                if (compiler.getHitCount() + compiler.getMissCount() > 0) {
+                    logger.info("criteria compiler [{}] size：{}，hit：{}，miss：{}", compiler.getName(),
+                        compiler.size(), compiler.getHitCount(), compiler.getMissCount());
+                }
+            }
+            for (AuditLogPipeline<?> pipeline : this.auditLogPipelines) {
+                logger.info("audit log pipeline [{}] size：{}，dropped：{}，spilled：{}，failed：{}", pipeline.getName(),
+                    pipeline.size(), pipeline.getDroppedCount(), pipeline.getSpilledCount(), pipeline.getFailedCount());
+            }
+        } catch (Exception e) {
+            // 异常时不中断定时任务
+            logger.error("log statistics error", e);
+        }
+    }
+}
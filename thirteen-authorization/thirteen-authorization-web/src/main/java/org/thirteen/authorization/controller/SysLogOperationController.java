@@ -23,4 +23,9 @@ public class SysLogOperationController extends BaseDeleteController<SysLogOperat
     public SysLogOperationController(SysLogOperationService service) {
         super(service);
     }
+
+    @Override
+    protected boolean isExportEnabled() {
+        return true;
+    }
 }
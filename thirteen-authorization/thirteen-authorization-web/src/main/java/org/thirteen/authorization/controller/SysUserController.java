@@ -29,6 +29,11 @@ public class SysUserController extends BaseRecordController<SysUserVO, SysUserSe
         super(service);
     }
 
+    @Override
+    protected boolean isExportEnabled() {
+        return true;
+    }
+
     @ApiOperation(value = "检查账号是否已存在", notes = "检查账号是否已存在，存在返回true，不存在返回false",
         response = ResponseResult.class)
     @GetMapping(value = "/checkAccount")
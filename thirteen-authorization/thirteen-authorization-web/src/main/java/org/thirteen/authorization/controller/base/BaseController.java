@@ -2,14 +2,23 @@ package org.thirteen.authorization.controller.base;
 
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
 import org.thirteen.authorization.common.utils.JsonUtil;
+import org.thirteen.authorization.common.utils.JwtUtil;
+import org.thirteen.authorization.common.utils.StringUtil;
+import org.thirteen.authorization.controller.support.ExportWriter;
+import org.thirteen.authorization.exceptions.NotFoundException;
+import org.thirteen.authorization.exceptions.UnauthorizedException;
 import org.thirteen.authorization.model.params.base.BaseParam;
 import org.thirteen.authorization.model.vo.base.BaseVO;
 import org.thirteen.authorization.service.base.BaseService;
 import org.thirteen.authorization.web.PagerResult;
 import org.thirteen.authorization.web.ResponseResult;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -103,4 +112,47 @@ public abstract class BaseController<VO extends BaseVO, S extends BaseService<VO
         @ApiParam(required = true, value = "条件") @RequestParam("param") String param) {
         return ResponseResult.ok(this.service.findAllByParam(JsonUtil.parseObject(param, BaseParam.class)));
     }
+
+    @ApiOperation(value = "由条件导出多条信息",
+        notes = "流式导出，忽略分页参数，格式为ndjson（每行一个JSON对象）或csv，需登录，仅开放导出的接口可用")
+    @GetMapping(value = "/exportByParam")
+    public void exportByParam(
+        @ApiParam(required = true, value = "条件") @RequestParam("param") String param,
+        @ApiParam(value = "格式 ndjson/csv") @RequestParam(value = "format", defaultValue = ExportWriter.NDJSON) String format,
+        HttpServletResponse response) throws IOException {
+        if (!this.isExportEnabled()) {
+            throw new NotFoundException("当前接口不支持导出");
+        }
+        // 导出整表数据，未配置权限时也必须登录
+        if (StringUtil.isEmpty(JwtUtil.getAccount())) {
+            throw new UnauthorizedException();
+        }
+        ExportWriter<VO> writer = new ExportWriter<>(format, this.getVoClass(), response.getOutputStream());
+        response.setContentType(ExportWriter.getContentType(format));
+        response.setHeader("Content-Disposition", "attachment; filename=export." + format);
+        writer.start();
+        this.service.streamAllByParam(JsonUtil.parseObject(param, BaseParam.class), writer::write);
+        writer.finish();
+    }
+
+    /**
+     * 是否开放导出接口，默认不开放，需要导出的控制器重写此方法
+     *
+     * @return 是否开放导出接口
+     */
+    protected boolean isExportEnabled() {
+        return false;
+    }
+
+    /**
+     * 获取VO对象的类型
+     *
+     * @return VO对象的类型
+     */
+    @SuppressWarnings("unchecked")
+    protected Class<VO> getVoClass() {
+        Class<?>[] types = GenericTypeResolver.resolveTypeArguments(this.getClass(), BaseController.class);
+        Assert.notNull(types, "无法获取VO对象的类型");
+        return (Class<VO>) types[0];
+    }
 }
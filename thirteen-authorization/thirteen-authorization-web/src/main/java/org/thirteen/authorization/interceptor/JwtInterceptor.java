@@ -1,5 +1,9 @@
 package org.thirteen.authorization.interceptor;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 import org.thirteen.authorization.common.utils.JwtUtil;
 import org.thirteen.authorization.common.utils.StringUtil;
@@ -7,6 +11,7 @@ import org.thirteen.authorization.common.utils.WebUtil;
 import org.thirteen.authorization.exceptions.ForbiddenException;
 import org.thirteen.authorization.exceptions.UnauthorizedException;
 import org.thirteen.authorization.model.vo.SysPermissionVO;
+import org.thirteen.authorization.redis.event.PermissionChangedEvent;
 import org.thirteen.authorization.redis.service.RedisTokenService;
 import org.thirteen.authorization.redis.token.RedisToken;
 import org.thirteen.authorization.service.AuthorityService;
@@ -15,9 +20,11 @@ import org.thirteen.authorization.service.SysPermissionService;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.thirteen.authorization.constant.GlobalConstants.*;
 
@@ -27,24 +34,35 @@ import static org.thirteen.authorization.constant.GlobalConstants.*;
  * @date Created in 15:38 2020/2/23
  * @modified By
  */
-public class JwtInterceptor extends HandlerInterceptorAdapter {
+public class JwtInterceptor extends HandlerInterceptorAdapter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtInterceptor.class);
 
     private final SysPermissionService sysPermissionService;
     private final AuthorityService authorityService;
     private final RedisTokenService redisTokenService;
 
     /**
-     * 所有登陆后可访问的地址
+     * 默认登陆后可访问的地址
+     */
+    private static final String[] DEFAULT_LOGIN_URLS = {"/getCurrentUser", "/validate"};
+
+    /**
+     * 权限路由表，由请求路径查找需要的访问级别（不可变，重建后整体替换，读取时无需加锁）
      */
-    private List<String> loginUrlList;
+    private volatile PermissionRouteTable routeTable;
     /**
-     * 所有认证后可访问的地址
+     * 后台重建权限路由表的单线程执行器
      */
-    private List<String> authUrlList;
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "permission-route-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
     /**
-     * 所有授权后可访问的地址
+     * 是否已有待执行的重建任务，重建开始前的多次变更合并为一次重建
      */
-    private List<String> permsUrlList;
+    private final AtomicBoolean reloadPending = new AtomicBoolean(false);
 
     public JwtInterceptor(SysPermissionService sysPermissionService, AuthorityService authorityService,
                           RedisTokenService redisTokenService) {
@@ -61,16 +79,16 @@ public class JwtInterceptor extends HandlerInterceptorAdapter {
         // token验证，如果token有效，设置account到threadLocal
         this.validate(now, request);
         // 地址过滤
-        String uri = request.getRequestURI();
+        PermissionRouteTable.Route route = this.routeTable.match(request.getRequestURI());
         // TODO 需登录判断与需认证判断暂用同一逻辑，待后续拆分
-        if (this.loginUrlList.contains(uri) || this.authUrlList.contains(uri) || this.permsUrlList.contains(uri)) {
+        if (route != null) {
             if (StringUtil.isEmpty(JwtUtil.getAccount())) {
                 throw new UnauthorizedException();
             }
             flag = true;
-            // 校验权限
-            if (this.permsUrlList.contains(uri)) {
-                flag = this.authorityService.validate(uri);
+            // 校验权限（使用匹配到的权限路径校验，Ant风格路径与用户权限中的路径一致）
+            if (PERMISSION_PERMS.equals(route.getType())) {
+                flag = this.authorityService.validate(route.getPattern());
                 if (!flag) {
                     throw new ForbiddenException();
                 }
@@ -98,9 +116,8 @@ public class JwtInterceptor extends HandlerInterceptorAdapter {
                 // 校验当前redisToken是否过期
                 try {
                     JwtUtil.verify(redisToken.getToken());
-                    // 更新最后一次访问时间
-                    redisToken.setLastAccessTime(now);
-                    this.redisTokenService.put(token, redisToken);
+                    // 更新最后一次访问时间（延迟批量写入redis）
+                    this.redisTokenService.touch(token, redisToken, now);
                     // 如果未过期，设置当前用户账号到threadLocal
                     JwtUtil.setAccount(redisToken.getAccount());
                 } catch (Exception e) {
@@ -128,14 +145,51 @@ public class JwtInterceptor extends HandlerInterceptorAdapter {
         }
     }
 
+    /**
+     * 权限变更时（本节点或其他节点），在后台重建权限路由表
+     *
+     * @param event 权限变更事件
+     */
+    @EventListener
+    public void onPermissionChanged(PermissionChangedEvent event) {
+        this.reload();
+    }
+
+    /**
+     * 在后台重建权限路由表，重建完成前请求仍使用原有的路由表
+     */
+    public void reload() {
+        if (this.reloadPending.compareAndSet(false, true)) {
+            try {
+                this.reloadExecutor.execute(() -> {
+                    // 先重置标识，重建期间发生的变更会再次触发重建
+                    this.reloadPending.set(false);
+                    try {
+                        this.initFilterChains();
+                    } catch (Exception e) {
+                        logger.error("reload permission route table error：{{}}", e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                this.reloadPending.set(false);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.reloadExecutor.shutdownNow();
+    }
+
     /**
      * 初始化过滤链
      */
-    public void initFilterChains() {
-        // 初始化地址集合
-        this.loginUrlList = Arrays.asList("/getCurrentUser", "/validate");
-        this.authUrlList = new ArrayList<>();
-        this.permsUrlList = new ArrayList<>();
+    public synchronized void initFilterChains() {
+        PermissionRouteTable.Builder builder = PermissionRouteTable.builder();
+        // 初始化默认地址
+        for (String url : DEFAULT_LOGIN_URLS) {
+            builder.add(url, PERMISSION_LOGIN);
+        }
         // 所有未删除的权限集合
         List<SysPermissionVO> allPermissionList = this.sysPermissionService.findAll().getList();
         for (SysPermissionVO permission : allPermissionList) {
@@ -144,18 +198,15 @@ public class JwtInterceptor extends HandlerInterceptorAdapter {
                 // 根据不同的权限类型，设置不同的拦截链
                 switch (permission.getType()) {
                     case PERMISSION_LOGIN:
-                        this.loginUrlList.add(permission.getUrl());
-                        break;
                     case PERMISSION_AUTHOR:
-                        this.authUrlList.add(permission.getUrl());
-                        break;
                     case PERMISSION_PERMS:
-                        this.permsUrlList.add(permission.getUrl());
+                        builder.add(permission.getUrl(), permission.getType());
                         break;
                     default:
                 }
             }
         }
+        this.routeTable = builder.build();
     }
 
 }
@@ -0,0 +1,289 @@
+package org.thirteen.authorization.interceptor;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Aaron.Sun
+ * @description 权限路由表（构建后不可变），由请求路径一次查找出需要的访问级别
+ * 不含通配符的路径使用哈希表精确匹配；由 *、**、{变量} 组成的Ant风格路径使用路径前缀树匹配，
+ * 优先级为：精确段 > 单段通配（*、{变量}） > 多段通配（**）；其余Ant风格路径（如 *.html）交由AntPathMatcher匹配
+ * @date Created in 14:20 2026/10/18
+ * @modified By
+ */
+public final class PermissionRouteTable {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final String PATH_SEPARATOR = "/";
+    private static final String SINGLE_WILDCARD = "*";
+    private static final String DOUBLE_WILDCARD = "**";
+
+    /** 空路由表 */
+    private static final PermissionRouteTable EMPTY = new PermissionRouteTable(
+        Collections.emptyMap(), new Node(), Collections.emptyList(), 0);
+
+    /** 精确路径 */
+    private final Map<String, Route> exactRoutes;
+    /** 路径前缀树根节点 */
+    private final Node root;
+    /** 前缀树无法表示的Ant风格路径 */
+    private final List<Route> patternRoutes;
+    /** 路由总数 */
+    private final int size;
+
+    private PermissionRouteTable(Map<String, Route> exactRoutes, Node root, List<Route> patternRoutes, int size) {
+        this.exactRoutes = exactRoutes;
+        this.root = root;
+        this.patternRoutes = patternRoutes;
+        this.size = size;
+    }
+
+    /**
+     * 空路由表
+     *
+     * @return 空路由表
+     */
+    public static PermissionRouteTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 路由表构建器
+     *
+     * @return 路由表构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 由请求路径查找路由
+     *
+     * @param uri 请求路径
+     * @return 匹配的路由，不存在时返回null
+     */
+    public Route match(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        // 精确匹配
+        Route route = this.exactRoutes.get(uri);
+        if (route != null) {
+            return route;
+        }
+        // 前缀树匹配
+        if (this.root.hasChildren()) {
+            route = match(this.root, StringUtils.tokenizeToStringArray(uri, PATH_SEPARATOR), 0);
+        }
+        // 其余Ant风格路径匹配，存在多个匹配时取最具体的路径
+        if (!this.patternRoutes.isEmpty()) {
+            Comparator<String> comparator = PATH_MATCHER.getPatternComparator(uri);
+            for (Route patternRoute : this.patternRoutes) {
+                if (PATH_MATCHER.match(patternRoute.pattern, uri)
+                    && (route == null || comparator.compare(patternRoute.pattern, route.pattern) < 0)) {
+                    route = patternRoute;
+                }
+            }
+        }
+        return route;
+    }
+
+    /**
+     * 路由总数
+     *
+     * @return 路由总数
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * 前缀树深度优先匹配，按优先级依次尝试，第一个匹配到的即为最具体的路由
+     *
+     * @param node     当前节点
+     * @param segments 请求路径的所有段
+     * @param index    当前段的下标
+     * @return 匹配的路由
+     */
+    private static Route match(Node node, String[] segments, int index) {
+        if (index == segments.length) {
+            if (node.route != null) {
+                return node.route;
+            }
+            // ** 可以匹配0个段
+            return node.doubleWildcard != null ? match(node.doubleWildcard, segments, index) : null;
+        }
+        Route route;
+        Node child = node.literals.get(segments[index]);
+        if (child != null && (route = match(child, segments, index + 1)) != null) {
+            return route;
+        }
+        if (node.wildcard != null && (route = match(node.wildcard, segments, index + 1)) != null) {
+            return route;
+        }
+        if (node.doubleWildcard != null) {
+            for (int i = index; i <= segments.length; i++) {
+                if ((route = match(node.doubleWildcard, segments, i)) != null) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 路由
+     */
+    public static final class Route {
+        /** 权限路径（可能为Ant风格路径） */
+        private final String pattern;
+        /** 权限类型 */
+        private final String type;
+
+        private Route(String pattern, String type) {
+            this.pattern = pattern;
+            this.type = type;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+
+    /**
+     * 路由表构建器（非线程安全）
+     */
+    public static final class Builder {
+
+        private final Map<String, Route> routes = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 添加路由，同一路径添加多次时，保留要求更严格的权限类型（类型值越大越严格）
+         *
+         * @param pattern 权限路径
+         * @param type    权限类型
+         * @return 路由表构建器
+         */
+        public Builder add(String pattern, String type) {
+            if (StringUtils.hasText(pattern) && type != null) {
+                String path = pattern.trim();
+                this.routes.merge(path, new Route(path, type),
+                    (oldRoute, newRoute) -> oldRoute.type.compareTo(newRoute.type) >= 0 ? oldRoute : newRoute);
+            }
+            return this;
+        }
+
+        /**
+         * 构建路由表
+         *
+         * @return 路由表
+         */
+        public PermissionRouteTable build() {
+            Map<String, Route> exactRoutes = new HashMap<>();
+            Node root = new Node();
+            List<Route> patternRoutes = new ArrayList<>();
+            for (Route route : this.routes.values()) {
+                if (!PATH_MATCHER.isPattern(route.pattern)) {
+                    exactRoutes.put(route.pattern, route);
+                } else if (!insert(root, route)) {
+                    patternRoutes.add(route);
+                }
+            }
+            return new PermissionRouteTable(exactRoutes, root, Collections.unmodifiableList(patternRoutes),
+                this.routes.size());
+        }
+
+        /**
+         * 将路由插入前缀树
+         *
+         * @param root  根节点
+         * @param route 路由
+         * @return 是否可以由前缀树表示
+         */
+        private static boolean insert(Node root, Route route) {
+            String[] segments = StringUtils.tokenizeToStringArray(route.pattern, PATH_SEPARATOR);
+            for (String segment : segments) {
+                if (segmentType(segment) < 0) {
+                    return false;
+                }
+            }
+            Node node = root;
+            for (String segment : segments) {
+                switch (segmentType(segment)) {
+                    case 2:
+                        if (node.doubleWildcard == null) {
+                            node.doubleWildcard = new Node();
+                        }
+                        node = node.doubleWildcard;
+                        break;
+                    case 1:
+                        if (node.wildcard == null) {
+                            node.wildcard = new Node();
+                        }
+                        node = node.wildcard;
+                        break;
+                    default:
+                        node = node.literals.computeIfAbsent(segment, key -> new Node());
+                }
+            }
+            node.route = route;
+            return true;
+        }
+
+        /**
+         * 路径段类型
+         *
+         * @param segment 路径段
+         * @return 0：精确段，1：单段通配，2：多段通配，-1：前缀树无法表示
+         */
+        private static int segmentType(String segment) {
+            if (DOUBLE_WILDCARD.equals(segment)) {
+                return 2;
+            }
+            if (SINGLE_WILDCARD.equals(segment)) {
+                return 1;
+            }
+            // 不含正则的路径变量，如 {id}
+            if (segment.startsWith("{") && segment.endsWith("}") && segment.indexOf(':') < 0
+                && segment.indexOf('{', 1) < 0) {
+                return 1;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+                return -1;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * 前缀树节点
+     */
+    private static final class Node {
+        /** 精确段子节点 */
+        private final Map<String, Node> literals = new HashMap<>();
+        /** 单段通配子节点 */
+        private Node wildcard;
+        /** 多段通配子节点 */
+        private Node doubleWildcard;
+        /** 终止于当前节点的路由 */
+        private Route route;
+
+        private boolean hasChildren() {
+            return !this.literals.isEmpty() || this.wildcard != null || this.doubleWildcard != null;
+        }
+    }
+}